@@ -1,14 +1,18 @@
 package com.lov4craft.core;
 
+import com.lov4craft.core.cache.InvalidationBus;
 import com.lov4craft.core.config.ConfigManager;
 import com.lov4craft.core.database.DatabaseManager;
 import com.lov4craft.core.commands.*;
+import com.lov4craft.core.listeners.PlayerListener;
+import com.lov4craft.core.redis.RedisManager;
 import com.lov4craft.core.ai.AIManager;
 import com.lov4craft.core.ai.config.AIConfig;
 import lombok.Getter;
 import org.bukkit.plugin.java.JavaPlugin;
 import redis.clients.jedis.JedisPool;
-import redis.clients.jedis.JedisPoolConfig;
+
+import java.util.concurrent.Executor;
 
 public class LOV4CraftCore extends JavaPlugin {
     
@@ -21,15 +25,28 @@ public class LOV4CraftCore extends JavaPlugin {
     @Getter
     private DatabaseManager databaseManager;
     
+    @Getter
+    private RedisManager redisManager;
+
     @Getter
     private JedisPool redisPool;
     
+    @Getter
+    private InvalidationBus invalidationBus;
+
     @Getter
     private AIManager aiManager;
     
     @Getter
     private AIConfig aiConfig;
 
+    /**
+     * Runs tasks on the next server tick. Used to deliver async results back
+     * to code that touches the Bukkit API.
+     */
+    @Getter
+    private final Executor mainThreadExecutor = runnable -> getServer().getScheduler().runTask(this, runnable);
+
     @Override
     public void onEnable() {
         instance = this;
@@ -43,13 +60,15 @@ public class LOV4CraftCore extends JavaPlugin {
         aiConfig = new AIConfig(this);
         aiManager = new AIManager(this, aiConfig);
 
+        // Initialize Redis connection, used by the database layer's caches
+        initializeRedis();
+        invalidationBus = new InvalidationBus(this, getConfig().getConfigurationSection("performance.cache.invalidation"));
+        invalidationBus.start();
+
         // Initialize database connection
         databaseManager = new DatabaseManager(this);
         databaseManager.initialize();
 
-        // Initialize Redis connection
-        initializeRedis();
-
         // Register commands
         registerCommands();
 
@@ -74,36 +93,21 @@ public class LOV4CraftCore extends JavaPlugin {
             databaseManager.shutdown();
         }
 
+        if (invalidationBus != null) {
+            invalidationBus.shutdown();
+        }
+
         // Close Redis connections
-        if (redisPool != null && !redisPool.isClosed()) {
-            redisPool.close();
+        if (redisManager != null) {
+            redisManager.shutdown();
         }
 
         getLogger().info("LOV4CRAFT Core has been disabled!");
     }
 
     private void initializeRedis() {
-        JedisPoolConfig poolConfig = new JedisPoolConfig();
-        poolConfig.setMaxTotal(8);
-        poolConfig.setMaxIdle(8);
-        poolConfig.setMinIdle(0);
-        poolConfig.setTestOnBorrow(true);
-        poolConfig.setTestOnReturn(true);
-        poolConfig.setTestWhileIdle(true);
-        poolConfig.setMinEvictableIdleTimeMillis(60000);
-        poolConfig.setTimeBetweenEvictionRunsMillis(30000);
-        poolConfig.setNumTestsPerEvictionRun(3);
-        poolConfig.setBlockWhenExhausted(true);
-
-        String redisHost = getConfig().getString("redis.host", "localhost");
-        int redisPort = getConfig().getInt("redis.port", 6379);
-        String redisPassword = getConfig().getString("redis.password", null);
-
-        if (redisPassword != null && redisPassword.isEmpty()) {
-            redisPassword = null;
-        }
-
-        redisPool = new JedisPool(poolConfig, redisHost, redisPort, 2000, redisPassword);
+        redisManager = new RedisManager(this, configManager.getConfig("redis.yml"));
+        redisPool = redisManager.getPool();
     }
 
     private void registerCommands() {
@@ -127,8 +131,8 @@ public class LOV4CraftCore extends JavaPlugin {
     }
 
     private void registerListeners() {
+        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
         // TODO: Register event listeners
-        // getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
         // getServer().getPluginManager().registerEvents(new MissionListener(this), this);
         // getServer().getPluginManager().registerEvents(new CoupleListener(this), this);
     }
@@ -144,14 +148,12 @@ public class LOV4CraftCore extends JavaPlugin {
         aiConfig = new AIConfig(this);
         aiManager.reload();
         
-        // Reconnect to database
+        // Reconnect to Redis and the database
         databaseManager.shutdown();
-        databaseManager.initialize();
-        
-        // Reconnect to Redis
-        if (redisPool != null && !redisPool.isClosed()) {
-            redisPool.close();
+        if (redisManager != null) {
+            redisManager.shutdown();
         }
         initializeRedis();
+        databaseManager.initialize();
     }
 }
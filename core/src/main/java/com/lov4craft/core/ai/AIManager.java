@@ -5,8 +5,11 @@ import com.lov4craft.core.ai.config.AIConfig;
 import com.lov4craft.core.ai.neural.NeuralNetworkService;
 import com.lov4craft.core.ai.nlp.NLPService;
 import com.lov4craft.core.ai.ml.MachineLearningService;
+import com.lov4craft.core.ai.base.AIExecutor;
 import com.lov4craft.core.ai.base.AIService;
+import com.lov4craft.core.ai.base.PinningMonitor;
 import lombok.Getter;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
 import java.util.logging.Level;
@@ -20,10 +23,19 @@ public class AIManager {
     @Getter
     private final Map<String, AIService> services;
 
+    // Model services with their own batchers, not AIService subclasses
+    private NeuralNetworkService neuralNetworkService;
+    private MachineLearningService mlService;
+
+    private PinningMonitor pinningMonitor;
+    private BukkitTask cacheCleanupTask;
+    private final List<BukkitTask> metricsTasks;
+
     public AIManager(LOV4CraftCore plugin, AIConfig aiConfig) {
         this.plugin = plugin;
         this.aiConfig = aiConfig;
         this.services = new HashMap<>();
+        this.metricsTasks = new ArrayList<>();
         initializeServices();
     }
 
@@ -36,9 +48,9 @@ public class AIManager {
             registerService("content", new ContentGenerator(plugin, aiConfig, "content"));
 
             // Initialize advanced services
-            registerService("neural", new NeuralNetworkService(plugin, aiConfig, "neural"));
+            neuralNetworkService = new NeuralNetworkService(plugin);
             registerService("nlp", new NLPService(plugin, aiConfig, "nlp"));
-            registerService("ml", new MachineLearningService(plugin, aiConfig, "ml"));
+            mlService = new MachineLearningService(plugin);
 
             // Initialize all registered services
             for (Map.Entry<String, AIService> entry : services.entrySet()) {
@@ -47,6 +59,11 @@ public class AIManager {
                 service.initialize(aiConfig.getServiceConfig(serviceName).getParameters());
             }
 
+            startPinningMonitor();
+            cacheCleanupTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                () -> services.values().forEach(AIService::cleanUpCaches), 1200L, 1200L);
+            startMetricsReporting();
+
             plugin.getLogger().info("AI services initialized successfully");
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to initialize AI services", e);
@@ -57,21 +74,78 @@ public class AIManager {
         services.put(name, service);
     }
 
+    private void startPinningMonitor() {
+        List<AIExecutor> virtualExecutors = new ArrayList<>();
+        for (AIService service : services.values()) {
+            if (service.getExecutor().isVirtual()) {
+                virtualExecutors.add(service.getExecutor());
+            }
+        }
+        if (!virtualExecutors.isEmpty()) {
+            pinningMonitor = new PinningMonitor(plugin, virtualExecutors,
+                aiConfig.getGlobalConfig().getPerformanceConfig().getPinningThreshold());
+            pinningMonitor.start();
+        }
+    }
+
+    private void startMetricsReporting() {
+        for (Map.Entry<String, AIService> entry : services.entrySet()) {
+            AIService service = entry.getValue();
+            if (!service.getMetrics().isEnabled()) {
+                continue;
+            }
+            long ticks = Math.max(20L, aiConfig.getMetricsConfig(entry.getKey()).getReportingInterval() / 50L);
+            metricsTasks.add(plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                service::reportMetrics, ticks, ticks));
+        }
+    }
+
     public void reload() {
         shutdown();
         initializeServices();
     }
 
     public void shutdown() {
-        services.values().forEach(AIService::shutdown);
+        if (cacheCleanupTask != null) {
+            cacheCleanupTask.cancel();
+            cacheCleanupTask = null;
+        }
+        metricsTasks.forEach(BukkitTask::cancel);
+        metricsTasks.clear();
+        if (pinningMonitor != null) {
+            pinningMonitor.shutdown();
+            pinningMonitor = null;
+        }
+        services.values().forEach(AIService::stop);
         services.clear();
+        // Stops their batch collector threads
+        if (neuralNetworkService != null) {
+            neuralNetworkService.shutdown();
+            neuralNetworkService = null;
+        }
+        if (mlService != null) {
+            mlService.shutdown();
+            mlService = null;
+        }
     }
 
     public void logServicesStatus() {
         plugin.getLogger().info("=== AI Services Status ===");
-        services.forEach((name, service) -> 
-            logServiceStatus(name, service.isEnabled())
-        );
+        services.forEach((name, service) -> {
+            logServiceStatus(name, service.isEnabled());
+            plugin.getLogger().info("  executor " + service.getExecutor().describe());
+            service.getCaches().forEach(cache -> plugin.getLogger().info("  cache " + cache.describe()));
+            plugin.getLogger().info("  coalescing " + service.getCoalescer().describe());
+            plugin.getLogger().info("  breaker " + service.getCircuitBreaker().describe());
+            plugin.getLogger().info("  metrics " + service.getMetrics().describe());
+            service.getBatchers().forEach(batcher -> plugin.getLogger().info("  batcher " + batcher.describe()));
+        });
+        if (neuralNetworkService != null) {
+            neuralNetworkService.getBatchers().forEach(batcher -> plugin.getLogger().info("  batcher " + batcher.describe()));
+        }
+        if (mlService != null) {
+            mlService.getBatchers().forEach(batcher -> plugin.getLogger().info("  batcher " + batcher.describe()));
+        }
     }
 
     private void logServiceStatus(String serviceName, boolean enabled) {
@@ -103,7 +177,7 @@ public class AIManager {
     }
 
     public NeuralNetworkService getNeuralNetworkService() {
-        return getService("neural");
+        return neuralNetworkService;
     }
 
     public NLPService getNlpService() {
@@ -111,7 +185,7 @@ public class AIManager {
     }
 
     public MachineLearningService getMlService() {
-        return getService("ml");
+        return mlService;
     }
 
     public boolean isServiceEnabled(String serviceName) {
@@ -122,7 +196,7 @@ public class AIManager {
     public Map<String, Object> getServiceState(String serviceName) {
         AIService service = services.get(serviceName);
         if (service != null) {
-            return service.getState();
+            return service.getState().snapshot();
         }
         return Collections.emptyMap();
     }
@@ -130,14 +204,14 @@ public class AIManager {
     public void updateServiceState(String serviceName, String key, Object value) {
         AIService service = services.get(serviceName);
         if (service != null) {
-            service.updateState(key, value);
+            service.getState().set(key, value);
         }
     }
 
     public void clearServiceState(String serviceName) {
         AIService service = services.get(serviceName);
         if (service != null) {
-            service.clearState();
+            service.getState().clear();
         }
     }
 }
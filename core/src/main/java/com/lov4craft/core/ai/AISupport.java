@@ -1,6 +1,7 @@
 package com.lov4craft.core.ai;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.ai.base.AICache;
 import com.lov4craft.core.ai.base.AIService;
 import com.lov4craft.core.ai.config.AIConfig;
 import org.bukkit.entity.Player;
@@ -8,18 +9,23 @@ import org.bukkit.entity.Player;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
 public class AISupport extends AIService {
     private final Map<UUID, SupportSession> activeSessions;
     private final Pattern toxicityPattern;
     private final Map<String, ResponseTemplate> responseTemplates;
+    private final LongAdder totalQueries;
+    private final AICache<String, QueryAnalysis> analysisCache;
 
     public AISupport(LOV4CraftCore plugin, AIConfig aiConfig, String serviceName) {
         super(plugin, aiConfig, serviceName);
         this.activeSessions = new ConcurrentHashMap<>();
         this.toxicityPattern = Pattern.compile("\\b(spam|hack|cheat|grief|kill|noob)\\b", Pattern.CASE_INSENSITIVE);
         this.responseTemplates = new HashMap<>();
+        this.totalQueries = state.counter("total_queries");
+        this.analysisCache = createCache("analysis");
         initializeTemplates();
     }
 
@@ -35,7 +41,7 @@ public class AISupport extends AIService {
         }
 
         updateState("status", "running");
-        updateState("active_sessions", 0);
+        state.gauge("active_sessions", activeSessions::size);
         plugin.getLogger().info("AI Support system initialized");
     }
 
@@ -46,28 +52,49 @@ public class AISupport extends AIService {
     }
 
     public CompletableFuture<SupportResponse> handleQuery(Player player, String query) {
-        return executeAsync(() -> {
-            SupportSession session = getOrCreateSession(player);
-            session.addMessage("user", query);
-
-            // Analyze query
-            QueryAnalysis analysis = analyzeQuery(query);
-            updateState("last_query_type", analysis.category());
-
-            // Generate response
-            String response = generateResponse(analysis, session);
-            session.addMessage("assistant", response);
-
-            // Update metrics
-            updateState("total_queries", ((Integer) state.getOrDefault("total_queries", 0)) + 1);
-            
-            return new SupportResponse(
-                response,
-                analysis.category(),
-                analysis.confidence(),
-                session.getContext()
-            );
-        });
+        String limitGroup = rateLimiter.resolveGroup(player::hasPermission);
+        SupportSession session = getOrCreateSession(player);
+        String normalized = normalizeKey(query);
+
+        // Every request pays its own rate limit; identical queries in flight share the analysis
+        CompletableFuture<SupportResponse> answer = acquireLimit(player.getUniqueId().toString(), limitGroup)
+            .thenCompose(ignored -> analyze(normalized))
+            .thenApply(analysis -> {
+                // The reply names the player, so only this last step is per request
+                String response = generateResponse(analysis, session);
+                session.addMessage("user", query);
+                session.addMessage("assistant", response);
+                updateState("last_query_type", analysis.category());
+                totalQueries.increment();
+                return new SupportResponse(
+                    response,
+                    analysis.category(),
+                    analysis.confidence(),
+                    session.getContext()
+                );
+            });
+        return timed("query", withFallback(answer, () -> new SupportResponse(
+            "Support is busy right now, please try again in a moment.",
+            SupportCategory.GENERAL_HELP,
+            0.0,
+            Map.of()
+        )));
+    }
+
+    /**
+     * Cached analysis of the normalized query, or one shared run on the
+     * executor for all requests that miss at the same time.
+     */
+    private CompletableFuture<QueryAnalysis> analyze(String normalized) {
+        QueryAnalysis cached = analysisCache.get(normalized);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return coalesce("analysis", normalized, () -> executeAsync(() -> {
+            QueryAnalysis result = analyzeQuery(normalized);
+            analysisCache.put(normalized, result);
+            return result;
+        }));
     }
 
     private SupportSession getOrCreateSession(Player player) {
@@ -1,6 +1,8 @@
 package com.lov4craft.core.ai;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.ai.base.AIService;
+import com.lov4craft.core.ai.base.RequestCoalescer;
 import lombok.Getter;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -15,6 +17,10 @@ public class ContentGenerator {
     private final Random random;
     private final Map<String, StructureTemplate> structureTemplates;
     private final Map<String, QuestTemplate> questTemplates;
+
+    // Players requesting the same structure type at once share one generation
+    @Getter
+    private final RequestCoalescer<String> structureRequests;
     
     @Getter
     private boolean enabled;
@@ -30,6 +36,7 @@ public class ContentGenerator {
         this.random = new Random();
         this.structureTemplates = new HashMap<>();
         this.questTemplates = new HashMap<>();
+        this.structureRequests = new RequestCoalescer<>("content/structures");
     }
 
     public void initialize(ConfigurationSection config) {
@@ -53,15 +60,16 @@ public class ContentGenerator {
     }
 
     public CompletableFuture<StructureTemplate> generateStructure(String type, Location location) {
-        return CompletableFuture.supplyAsync(() -> {
-            StructureTemplate template = structureTemplates.get(type);
+        String key = AIService.normalizeKey(type);
+        return structureRequests.execute(key, () -> CompletableFuture.supplyAsync(() -> {
+            StructureTemplate template = structureTemplates.get(key);
             if (template == null) {
                 throw new IllegalArgumentException("Unknown structure type: " + type);
             }
 
             // Generate structure variations based on template
             return template.generateVariation(random);
-        });
+        }));
     }
 
     public CompletableFuture<QuestTemplate> generateQuest(String type, int difficulty) {
@@ -56,8 +56,10 @@ public class ServerOptimizer extends AIService {
     private void optimizationLoop() {
         while (isRunning.get() && !Thread.currentThread().isInterrupted()) {
             try {
+                long started = System.nanoTime();
                 monitorPerformance();
                 optimizeServer();
+                metrics.recordLatency("optimize", System.nanoTime() - started);
                 Thread.sleep(30000); // Run every 30 seconds
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -78,8 +80,8 @@ public class ServerOptimizer extends AIService {
         double memoryUsage = (double) heapUsage.getUsed() / heapUsage.getMax() * 100;
         memoryHistory.put(String.valueOf(System.currentTimeMillis()), memoryUsage);
 
-        updateState("tps", currentTPS);
-        updateState("memory_usage", memoryUsage);
+        state.setGauge("tps", currentTPS);
+        state.setGauge("memory_usage", memoryUsage);
 
         // Log performance metrics
         if (memoryUsage > 80 || currentTPS < 18.0) {
@@ -110,8 +112,7 @@ public class ServerOptimizer extends AIService {
             .filter(chunk -> !chunk.isLoaded() || !isChunkActive(chunk))
             .forEach(chunk -> {
                 chunk.unload(true);
-                updateState("unloaded_chunks", 
-                    ((Integer) state.getOrDefault("unloaded_chunks", 0)) + 1);
+                state.increment("unloaded_chunks");
             });
 
         // Limit entity spawns in heavily populated areas
@@ -122,7 +123,7 @@ public class ServerOptimizer extends AIService {
                 world.setSpawnLimit(category, Math.max(1, currentLimit / 2));
             }
             updateState("spawn_limits_reduced", true);
-            updateState("entity_count", entityCount);
+            state.setGauge("entity_count", entityCount);
         } else {
             // Reset spawn limits to default
             world.setSpawnLimit(SpawnCategory.MONSTER, 70);
@@ -130,7 +131,7 @@ public class ServerOptimizer extends AIService {
             world.setSpawnLimit(SpawnCategory.WATER_ANIMAL, 5);
             world.setSpawnLimit(SpawnCategory.AMBIENT, 15);
             updateState("spawn_limits_reduced", false);
-            updateState("entity_count", entityCount);
+            state.setGauge("entity_count", entityCount);
         }
     }
 
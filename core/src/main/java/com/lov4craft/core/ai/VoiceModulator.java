@@ -34,7 +34,7 @@ public class VoiceModulator extends AIService {
         }
 
         updateState("status", "running");
-        updateState("active_profiles", 0);
+        state.gauge("active_profiles", voiceProfiles::size);
         plugin.getLogger().info("Voice modulation system initialized");
     }
 
@@ -45,10 +45,14 @@ public class VoiceModulator extends AIService {
     }
 
     public CompletableFuture<VoiceData> modulateVoice(Player player, byte[] audioData) {
-        return executeAsync(() -> {
+        return timed("modulate", executeAsync(() -> {
             VoiceProfile profile = getOrCreateProfile(player);
             return applyVoiceEffects(audioData, profile);
-        });
+        }, () -> {
+            // Pass the voice through untouched rather than dropping it
+            VoiceProfile profile = getOrCreateProfile(player);
+            return new VoiceData(audioData, profile.sampleRate, profile.channels, profile.bitsPerSample);
+        }));
     }
 
     private VoiceProfile getOrCreateProfile(Player player) {
@@ -0,0 +1,224 @@
+package com.lov4craft.core.ai.base;
+
+import com.lov4craft.core.util.FrequencySketch;
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache for AI results. Entries are split over
+ * independently locked LRU stripes so concurrent requests rarely wait on
+ * each other. When a stripe is full a new key only replaces the least
+ * recently used one if it has been asked for at least as often (TinyLFU),
+ * so a burst of one-off queries cannot flush the entries that keep getting
+ * hits.
+ *
+ * <p>Expired entries are dropped on read and by {@link #cleanUp()}, which
+ * {@link com.lov4craft.core.ai.AIManager} runs on a timer.
+ */
+public class AICache<K, V> {
+    private static final int MAX_STRIPES = 16;
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Stripe<K, V>[] stripes;
+    private final int stripeMask;
+    private final FrequencySketch sketch;
+
+    @Getter
+    private final LongAdder hitCount;
+
+    @Getter
+    private final LongAdder missCount;
+
+    @Getter
+    private final LongAdder evictionCount;
+
+    @Getter
+    private final LongAdder expirationCount;
+
+    // New keys turned away because they were less popular than the entry they would replace
+    @Getter
+    private final LongAdder rejectionCount;
+
+    /**
+     * @param maxSize entries held at most, 0 disables the cache
+     */
+    @SuppressWarnings("unchecked")
+    public AICache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlMillis = Math.max(1, ttlMillis);
+
+        int stripeCount = Math.max(1, Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, this.maxSize / 8))));
+        this.stripes = new Stripe[stripeCount];
+        int perStripe = this.maxSize / stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(this, perStripe);
+        }
+        this.stripeMask = stripeCount - 1;
+        this.sketch = new FrequencySketch(this.maxSize);
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.evictionCount = new LongAdder();
+        this.expirationCount = new LongAdder();
+        this.rejectionCount = new LongAdder();
+    }
+
+    public V get(K key) {
+        if (maxSize == 0) {
+            missCount.increment();
+            return null;
+        }
+        long hash = hash(key);
+        sketch.increment(hash);
+        V value = stripeFor(hash).get(key, System.currentTimeMillis());
+        if (value != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (maxSize == 0 || value == null) {
+            return;
+        }
+        long hash = hash(key);
+        stripeFor(hash).put(key, value, hash, System.currentTimeMillis());
+    }
+
+    public void invalidate(K key) {
+        if (maxSize > 0) {
+            stripeFor(hash(key)).remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Drops every expired entry.
+     *
+     * @return the number of entries removed
+     */
+    public int cleanUp() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            removed += stripe.removeExpired(now);
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public String describe() {
+        return String.format("%s: size=%d/%d hit-rate=%.1f%% hits=%d misses=%d evicted=%d expired=%d rejected=%d",
+            name, size(), maxSize, getHitRate() * 100, hitCount.sum(), missCount.sum(), evictionCount.sum(),
+            expirationCount.sum(), rejectionCount.sum());
+    }
+
+    private Stripe<K, V> stripeFor(long hash) {
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    private static long hash(Object key) {
+        return key.hashCode() * 0x9E3779B97F4A7C15L;
+    }
+
+    private record Entry<V>(V value, long hash, long expiresAt) {
+    }
+
+    private static final class Stripe<K, V> {
+        private final AICache<K, V> cache;
+        private final int capacity;
+        // Access-ordered, so the first entry is the least recently used
+        private final LinkedHashMap<K, Entry<V>> entries;
+
+        Stripe(AICache<K, V> cache, int capacity) {
+            this.cache = cache;
+            this.capacity = Math.max(1, capacity);
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        synchronized V get(K key, long now) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= now) {
+                entries.remove(key);
+                cache.expirationCount.increment();
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(K key, V value, long hash, long now) {
+            Entry<V> entry = new Entry<>(value, hash, now + cache.ttlMillis);
+            if (entries.containsKey(key) || entries.size() < capacity) {
+                entries.put(key, entry);
+                return;
+            }
+
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            Entry<V> victim = eldest.next().getValue();
+            if (victim.expiresAt() <= now) {
+                cache.expirationCount.increment();
+            } else if (cache.sketch.frequency(hash) >= cache.sketch.frequency(victim.hash())) {
+                cache.evictionCount.increment();
+            } else {
+                cache.rejectionCount.increment();
+                return;
+            }
+            eldest.remove();
+            entries.put(key, entry);
+        }
+
+        synchronized void remove(K key) {
+            entries.remove(key);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int removeExpired(long now) {
+            int removed = 0;
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt() <= now) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            cache.expirationCount.add(removed);
+            return removed;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.lov4craft.core.ai.base;
+
+import com.lov4craft.core.ai.config.GlobalConfig;
+import com.lov4craft.core.util.BoundedExecutor;
+import com.lov4craft.core.util.LatencyHistogram;
+import lombok.Getter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bulkhead executor owned by a single AI service, so a slow model or backend
+ * can only exhaust its own threads and queue. Work beyond the queue is
+ * rejected immediately rather than run on the caller or left waiting.
+ *
+ * <p>Services that mostly wait on remote calls can run on virtual threads
+ * instead. There is no queue then; the number of tasks in flight is capped by
+ * a semaphore and blocked tasks cost no platform thread.
+ */
+public class AIExecutor implements Executor {
+    private final String serviceName;
+    private final ExecutorService delegate;
+
+    // Exactly one of these is set, depending on the mode
+    private final ThreadPoolExecutor pool;
+    private final BoundedExecutor bounded;
+    private final int maxConcurrency;
+
+    @Getter
+    private final String threadPrefix;
+
+    // Time between submission and a thread picking the task up
+    @Getter
+    private final LatencyHistogram queueWaitMicros;
+
+    @Getter
+    private final LongAdder rejectedCount;
+
+    // Virtual threads of this service seen pinned to their carrier
+    @Getter
+    private final LongAdder pinnedCount;
+
+    public AIExecutor(String serviceName, GlobalConfig.ThreadPoolConfig config, boolean virtualThreads,
+                      int maxConcurrency, Logger logger) {
+        this.serviceName = serviceName;
+        this.threadPrefix = "LOV4CRAFT-AI-" + serviceName + "-";
+        this.queueWaitMicros = new LatencyHistogram();
+        this.rejectedCount = new LongAdder();
+        this.pinnedCount = new LongAdder();
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+
+        ExecutorService virtual = null;
+        if (virtualThreads) {
+            try {
+                virtual = newVirtualThreadExecutor(threadPrefix);
+            } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+                logger.warning("Virtual threads are not available on this JVM, " + serviceName + " uses platform threads");
+            }
+        }
+
+        if (virtual != null) {
+            this.bounded = new BoundedExecutor(virtual, this.maxConcurrency);
+            this.pool = null;
+            this.delegate = bounded;
+            return;
+        }
+
+        int coreSize = Math.max(1, config.getCoreSize());
+        int maxSize = Math.max(coreSize, config.getMaxSize());
+        AtomicInteger threadId = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(coreSize, maxSize, Math.max(1000, config.getKeepAlive()), TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())), runnable -> {
+                Thread thread = new Thread(runnable, threadPrefix + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        // Idle services give their threads back
+        this.pool.allowCoreThreadTimeOut(true);
+        this.bounded = null;
+        this.delegate = pool;
+    }
+
+    /**
+     * Thread-per-task executor with named virtual threads. Looked up
+     * reflectively so the plugin still runs on Java 17.
+     */
+    private static ExecutorService newVirtualThreadExecutor(String prefix) throws ReflectiveOperationException {
+        Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+        ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+            .invoke(null, factory);
+    }
+
+    /**
+     * @throws RejectedExecutionException if the executor is saturated or shut down
+     */
+    @Override
+    public void execute(Runnable task) {
+        long submitted = System.nanoTime();
+        try {
+            delegate.execute(() -> {
+                queueWaitMicros.record((System.nanoTime() - submitted) / 1000L);
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw e;
+        }
+    }
+
+    public boolean isVirtual() {
+        return bounded != null;
+    }
+
+    public int getQueueDepth() {
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    public int getActiveCount() {
+        return pool != null ? pool.getActiveCount() : maxConcurrency - bounded.getAvailablePermits();
+    }
+
+    public String describe() {
+        LatencyHistogram.Snapshot wait = queueWaitMicros.snapshot();
+        String usage = pool != null
+            ? String.format("threads=%d/%d active=%d queued=%d/%d", pool.getPoolSize(), pool.getMaximumPoolSize(),
+                pool.getActiveCount(), getQueueDepth(), getQueueDepth() + pool.getQueue().remainingCapacity())
+            : String.format("virtual in-flight=%d/%d pinned=%d", getActiveCount(), maxConcurrency, pinnedCount.sum());
+        return String.format("%s: %s rejected=%d | wait p50=%dus p99=%dus max=%dus", serviceName, usage,
+            rejectedCount.sum(), wait.getValueAtPercentile(50), wait.getValueAtPercentile(99), wait.getMax());
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(5, TimeUnit.SECONDS)) {
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,17 +2,34 @@ package com.lov4craft.core.ai.base;
 
 import com.lov4craft.core.LOV4CraftCore;
 import com.lov4craft.core.ai.config.AIConfig;
+import com.lov4craft.core.ai.config.GlobalConfig;
+import com.lov4craft.core.ai.config.ModelConfig;
 import com.lov4craft.core.ai.config.ServiceConfig;
+import com.lov4craft.core.util.ScoreMath;
 import lombok.Getter;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
 
 public abstract class AIService {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     protected final LOV4CraftCore plugin;
-    protected final Map<String, Object> state;
+    @Getter
+    protected final ServiceState state;
     protected final AIConfig aiConfig;
     protected final String serviceName;
     protected final ServiceConfig serviceConfig;
@@ -26,100 +43,392 @@ public abstract class AIService {
     @Getter
     protected double confidenceThreshold;
 
+    @Getter
+    protected final RateLimiter rateLimiter;
+
+    @Getter
+    protected final AIExecutor executor;
+
+    @Getter
+    protected final RequestCoalescer<String> coalescer;
+
+    @Getter
+    protected final CircuitBreaker circuitBreaker;
+
+    @Getter
+    protected final MetricsRegistry metrics;
+
+    private final LongAdder timeoutCount;
+    private final LongAdder retryCount;
+    private final LongAdder fallbackCount;
+
+    private final List<AICache<?, ?>> caches;
+    private final List<MicroBatcher<?, ?>> batchers;
+
     protected AIService(LOV4CraftCore plugin, AIConfig aiConfig, String serviceName) {
         this.plugin = plugin;
         this.aiConfig = aiConfig;
         this.serviceName = serviceName;
-        this.state = new HashMap<>();
+        this.state = new ServiceState();
         
         this.serviceConfig = aiConfig.getServiceConfig(serviceName);
         this.enabled = serviceConfig.isEnabled();
         this.modelName = serviceConfig.getModelName();
         this.confidenceThreshold = serviceConfig.getConfidenceThreshold();
+        this.rateLimiter = new RateLimiter(plugin, serviceName, serviceConfig.getRateLimitConfig());
+
+        GlobalConfig.ThreadPoolConfig threadPool = serviceConfig.getThreadPoolConfig() != null
+            ? serviceConfig.getThreadPoolConfig()
+            : aiConfig.getGlobalConfig().getPerformanceConfig().getThreadPoolConfig();
+        this.executor = new AIExecutor(serviceName, threadPool, serviceConfig.isVirtualThreads(),
+            serviceConfig.getMaxConcurrency(), plugin.getLogger());
+        this.caches = new CopyOnWriteArrayList<>();
+        this.batchers = new CopyOnWriteArrayList<>();
+        this.coalescer = new RequestCoalescer<>(serviceName);
+        state.gauge("coalescing_ratio", coalescer::getCoalescingRatio);
+
+        this.circuitBreaker = new CircuitBreaker(serviceName, serviceConfig.getCircuitBreakerConfig());
+        this.circuitBreaker.addListener(this::onBreakerTransition);
+        this.timeoutCount = state.counter("timeouts");
+        this.retryCount = state.counter("retries");
+        this.fallbackCount = state.counter("fallbacks");
+        updateState("circuit_breaker", circuitBreaker.getState().name());
+
+        this.metrics = new MetricsRegistry(serviceName, state, serviceConfig.getMetricsConfig());
+        this.metrics.addListener(this::onAlert);
     }
 
     public abstract void initialize(Map<String, Object> parameters);
     public abstract void shutdown();
 
+    /**
+     * Shuts the service down and releases its executor.
+     */
+    public void stop() {
+        shutdown();
+        batchers.forEach(MicroBatcher::shutdown);
+        executor.shutdown();
+    }
+
+    /**
+     * Creates a cache sized by performance.caching in ai.yml. Its expired
+     * entries are purged by {@link #cleanUpCaches()}.
+     */
+    protected <K, V> AICache<K, V> createCache(String name) {
+        GlobalConfig.PerformanceConfig performance = aiConfig.getGlobalConfig().getPerformanceConfig();
+        AICache<K, V> cache = new AICache<>(serviceName + "/" + name,
+            performance.isEnableCaching() ? performance.getCacheMaxSize() : 0, performance.getCacheExpiration());
+        caches.add(cache);
+        return cache;
+    }
+
+    public List<AICache<?, ?>> getCaches() {
+        return Collections.unmodifiableList(caches);
+    }
+
+    /**
+     * Creates a batcher for this service's model, sized by the inference
+     * settings of its model in ai.yml. Batches run on the service executor.
+     */
+    protected <T, R> MicroBatcher<T, R> createBatcher(String name, AIBatchProcessor<T, R> processor) {
+        ModelConfig.InferenceConfig inference = aiConfig.getModelConfig(modelName).getInferenceConfig();
+        MicroBatcher<T, R> batcher = new MicroBatcher<>(serviceName + "/" + name, processor,
+            inference.getMaxBatchSize(), inference.getMaxBatchDelay(), inference.getMaxBatchSize() * 32, executor);
+        batchers.add(batcher);
+        return batcher;
+    }
+
+    public List<MicroBatcher<?, ?>> getBatchers() {
+        return Collections.unmodifiableList(batchers);
+    }
+
+    public void cleanUpCaches() {
+        for (AICache<?, ?> cache : caches) {
+            cache.cleanUp();
+        }
+    }
+
+    /**
+     * Shares one in-flight call between concurrent requests whose keys are
+     * equal after {@link #normalizeKey}. The operation name keeps keys of
+     * different result types apart.
+     */
+    protected <T> CompletableFuture<T> coalesce(String operation, String key, Supplier<CompletableFuture<T>> call) {
+        return coalescer.execute(operation + '|' + normalizeKey(key), () -> timed(operation, call.get()));
+    }
+
+    /**
+     * Records how long the future takes to complete, successfully or not,
+     * in the operation's latency histogram.
+     */
+    protected <T> CompletableFuture<T> timed(String operation, CompletableFuture<T> future) {
+        long started = System.nanoTime();
+        return future.whenComplete((value, error) -> metrics.recordLatency(operation, System.nanoTime() - started));
+    }
+
+    /**
+     * Lower-cases the key and collapses whitespace, so "How do I  marry?"
+     * and "how do i marry?" count as the same request.
+     */
+    public static String normalizeKey(String key) {
+        return WHITESPACE.matcher(key.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
     protected void updateState(String key, Object value) {
-        state.put(key, value);
+        state.set(key, value);
     }
 
     protected Object getState(String key) {
         return state.get(key);
     }
 
-    protected Map<String, Object> getState() {
-        return new HashMap<>(state);
+    /**
+     * Runs the task on this service's executor. See {@link #executeAsync(Supplier, Supplier)}.
+     */
+    protected <T> CompletableFuture<T> executeAsync(Supplier<T> task) {
+        return executeAsync(task, null);
     }
 
-    protected void clearState() {
-        state.clear();
+    /**
+     * Runs the task on this service's executor. Each attempt must finish
+     * within request-timeout, after which its thread is interrupted; failed
+     * and timed out attempts are retried up to max-retries times with
+     * jittered exponential backoff. A timed out attempt may still be running
+     * when its retry starts, so only services whose tasks are safe to repeat
+     * should set max-retries; side effects belong on the returned future.
+     * When the executor's queue is full, the circuit breaker is open or
+     * every attempt failed, the fallback's value is returned if one is
+     * given. Rate limited requests never fall back.
+     */
+    protected <T> CompletableFuture<T> executeAsync(Supplier<T> task, Supplier<T> fallback) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!enabled) {
+            result.completeExceptionally(new AIServiceException("Service is not enabled"));
+        } else {
+            timed("execute", result);
+            attempt(task, 0, result);
+        }
+        return withFallback(result, fallback);
     }
 
-    protected <T> CompletableFuture<T> executeAsync(Supplier<T> task) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (!enabled) {
-                    throw new AIServiceException("Service is not enabled");
-                }
-                return task.get();
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error in AI service: " + e.getMessage());
-                throw new AIServiceException("Failed to execute AI task", e);
+    /**
+     * Replaces any failure but a rate limit with the fallback's value. For
+     * callers that must act on the real result before falling back.
+     */
+    protected <T> CompletableFuture<T> withFallback(CompletableFuture<T> result, Supplier<T> fallback) {
+        if (fallback == null) {
+            return result;
+        }
+        return result.handle((value, error) -> {
+            if (error == null) {
+                return value;
+            }
+            if (unwrap(error) instanceof RateLimitedException) {
+                throw (RateLimitedException) unwrap(error);
             }
+            fallbackCount.increment();
+            return fallback.get();
         });
     }
 
-    protected double calculateConfidence(double[] values) {
-        if (values == null || values.length == 0) {
-            return 0.0;
+    private <T> void attempt(Supplier<T> task, int attemptNumber, CompletableFuture<T> result) {
+        if (!circuitBreaker.tryAcquire()) {
+            result.completeExceptionally(new CircuitOpenException(serviceName));
+            return;
         }
-        double sum = 0;
-        double max = Double.NEGATIVE_INFINITY;
-        for (double value : values) {
-            sum += value;
-            max = Math.max(max, value);
+
+        Attempt<T> attempt = new Attempt<>(task);
+        try {
+            executor.execute(attempt);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onIgnored();
+            result.completeExceptionally(new AIServiceException(serviceName + " is overloaded, try again later", e));
+            return;
         }
-        return (max / sum) * (1 - Math.exp(-values.length));
+
+        CompletableFuture<T> deadline = serviceConfig.getRequestTimeout() > 0
+            ? attempt.future.orTimeout(serviceConfig.getRequestTimeout(), TimeUnit.MILLISECONDS)
+            : attempt.future;
+        deadline.whenComplete((value, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess(attempt.elapsedNanos());
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = unwrap(error);
+            if (cause instanceof TimeoutException) {
+                attempt.interrupt();
+                timeoutCount.increment();
+                cause = new AIServiceException(serviceName + " did not answer within "
+                    + serviceConfig.getRequestTimeout() + "ms", cause);
+            }
+            if (!isRetryable(cause)) {
+                circuitBreaker.onIgnored();
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            circuitBreaker.onFailure(attempt.elapsedNanos());
+            if (attemptNumber >= serviceConfig.getMaxRetries()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            retryCount.increment();
+            CompletableFuture.delayedExecutor(backoffMillis(attemptNumber), TimeUnit.MILLISECONDS)
+                .execute(() -> attempt(task, attemptNumber + 1, result));
+        });
     }
 
-    protected Map<String, Double> normalizeValues(double[] values) {
-        Map<String, Double> normalized = new HashMap<>();
-        double sum = 0;
-        for (double value : values) {
-            sum += value;
+    /**
+     * Whether a failed attempt may succeed if tried again. Requests that were
+     * refused or invalid are not retried and do not count against the
+     * circuit breaker.
+     */
+    protected boolean isRetryable(Throwable error) {
+        if (error instanceof RateLimitedException || error instanceof CircuitOpenException) {
+            return false;
         }
-        for (int i = 0; i < values.length; i++) {
-            normalized.put("value_" + i, values[i] / sum);
+        Throwable cause = error instanceof AIServiceException && error.getCause() != null ? error.getCause() : error;
+        return !(cause instanceof IllegalArgumentException || cause instanceof UnsupportedOperationException);
+    }
+
+    /**
+     * Equal jitter: half the exponential step plus a random share of the
+     * other half, so retries of many callers spread out but never fire at once.
+     */
+    private long backoffMillis(int attemptNumber) {
+        long step = Math.min(Math.max(1, serviceConfig.getMaxRetryBackoff()),
+            Math.max(1, serviceConfig.getRetryBackoff()) << Math.min(attemptNumber, 20));
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void onBreakerTransition(CircuitBreaker.Transition transition) {
+        updateState("circuit_breaker", transition.to().name());
+        String message = String.format("Circuit breaker of %s %s -> %s: %s", serviceName, transition.from(),
+            transition.to(), transition.reason());
+        if (transition.to() == CircuitBreaker.State.OPEN) {
+            plugin.getLogger().warning(message);
+        } else {
+            plugin.getLogger().info(message);
         }
-        return normalized;
+        plugin.getServer().getPluginManager().callEvent(
+            new CircuitBreakerEvent(transition, !plugin.getServer().isPrimaryThread()));
     }
 
-    protected double[] softmax(double[] values) {
-        double[] result = new double[values.length];
-        double sum = 0;
-        double max = Double.NEGATIVE_INFINITY;
-        
-        for (double value : values) {
-            max = Math.max(max, value);
+    /**
+     * Like {@link #executeAsync} but charged to the subject's rate limit.
+     * Requests over the limit fail with {@link RateLimitedException} and are
+     * never queued, so a flood cannot pile up model calls.
+     *
+     * @param group custom limit from {@link RateLimiter#resolveGroup}, or null
+     */
+    protected <T> CompletableFuture<T> executeLimited(String subject, String group, Supplier<T> task) {
+        return executeLimited(subject, group, task, null);
+    }
+
+    protected <T> CompletableFuture<T> executeLimited(String subject, String group, Supplier<T> task,
+                                                      Supplier<T> fallback) {
+        // Charged once per request, not once per attempt
+        return withFallback(acquireLimit(subject, group).thenCompose(ignored -> executeAsync(task)), fallback);
+    }
+
+    /**
+     * Charges one request to the subject's rate limit without running
+     * anything, for requests whose work is shared with others, e.g. through
+     * {@link #coalesce}. Fails with {@link RateLimitedException} when over
+     * the limit.
+     */
+    protected CompletableFuture<Void> acquireLimit(String subject, String group) {
+        if (!rateLimiter.tryAcquireLocal(subject, group)) {
+            return CompletableFuture.failedFuture(new RateLimitedException(serviceName));
         }
-        
-        for (int i = 0; i < values.length; i++) {
-            result[i] = Math.exp(values[i] - max);
-            sum += result[i];
+        // Runs on the Redis executor, so the round trip never holds a slot of this service's bulkhead
+        return rateLimiter.tryAcquireGlobal(subject, group).thenAccept(allowed -> {
+            if (!allowed) {
+                throw new RateLimitedException(serviceName);
+            }
+        });
+    }
+
+    protected double calculateConfidence(double[] values) {
+        return ScoreMath.confidence(values);
+    }
+
+    /**
+     * Scales the values to sum to 1, into a new array.
+     */
+    protected double[] normalizeValues(double[] values) {
+        return ScoreMath.normalize(values, new double[values.length]);
+    }
+
+    /**
+     * Scales the values to sum to 1 into {@code out}, which may be {@code values}.
+     */
+    protected double[] normalizeValues(double[] values, double[] out) {
+        return ScoreMath.normalize(values, out);
+    }
+
+    protected double[] softmax(double[] values) {
+        return ScoreMath.softmax(values, new double[values.length]);
+    }
+
+    /**
+     * Softmax into {@code out}, which may be {@code values}.
+     */
+    protected double[] softmax(double[] values, double[] out) {
+        return ScoreMath.softmax(values, out);
+    }
+
+    /**
+     * Sets a gauge that is picked up by the next metrics report.
+     */
+    protected void logMetric(String name, double value) {
+        state.setGauge(name, value);
+    }
+
+    /**
+     * Closes the current metrics interval, see {@link MetricsRegistry#report()}.
+     * Called every reporting-interval by the AI manager.
+     */
+    public void reportMetrics() {
+        if (!metrics.isEnabled()) {
+            return;
         }
-        
-        for (int i = 0; i < result.length; i++) {
-            result[i] /= sum;
+        List<AIMetric> report = metrics.report();
+        if (metrics.isLogReports() && !report.isEmpty()) {
+            StringBuilder builder = new StringBuilder("Metrics of " + serviceName + ":");
+            for (AIMetric metric : report) {
+                builder.append(' ').append(metric.name()).append('=').append(String.format(Locale.ROOT, "%.2f", metric.value()));
+            }
+            plugin.getLogger().info(builder.toString());
         }
-        
-        return result;
     }
 
-    protected void logMetric(String name, double value) {
-        updateState("metric_" + name, value);
-        updateState("metric_" + name + "_timestamp", System.currentTimeMillis());
+    private void onAlert(MetricsRegistry.Alert alert) {
+        ServiceConfig.AlertConfig config = alert.config();
+        String message = String.format(Locale.ROOT, "%s alert on %s: %s %s %s (now %.2f)",
+            alert.resolved() ? "Resolved" : config.getSeverity().toUpperCase(Locale.ROOT), serviceName,
+            config.getMetric(), config.getCondition(), config.getThreshold(), alert.value());
+        plugin.getLogger().log(alert.resolved() ? Level.INFO : severityLevel(config.getSeverity()), message);
+        plugin.getServer().getPluginManager().callEvent(
+            new MetricAlertEvent(alert, !plugin.getServer().isPrimaryThread()));
+    }
+
+    private static Level severityLevel(String severity) {
+        switch (severity.toLowerCase(Locale.ROOT)) {
+            case "critical":
+            case "severe":
+                return Level.SEVERE;
+            case "info":
+                return Level.INFO;
+            default:
+                return Level.WARNING;
+        }
     }
 
     public static class AIServiceException extends RuntimeException {
@@ -132,7 +441,79 @@ public abstract class AIService {
         }
     }
 
-    protected record AIMetric(
+    public static class RateLimitedException extends AIServiceException {
+        public RateLimitedException(String serviceName) {
+            super("Too many requests to " + serviceName + ", please slow down");
+        }
+    }
+
+    public static class CircuitOpenException extends AIServiceException {
+        public CircuitOpenException(String serviceName) {
+            super(serviceName + " is temporarily unavailable, try again later");
+        }
+    }
+
+    /**
+     * One try of a task. Remembers the thread running it so a missed
+     * deadline can interrupt exactly this task and nothing the thread
+     * picks up afterwards.
+     */
+    private final class Attempt<T> implements Runnable {
+        private final Supplier<T> task;
+        private final CompletableFuture<T> future;
+        private Thread runner;
+        private boolean started;
+        private long startedAt;
+        private long finishedAt;
+
+        Attempt(Supplier<T> task) {
+            this.task = task;
+            this.future = new CompletableFuture<>();
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                // Deadline passed while queued
+                if (future.isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+                started = true;
+                startedAt = System.nanoTime();
+            }
+            try {
+                future.complete(task.get());
+            } catch (RateLimitedException e) {
+                future.completeExceptionally(e);
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error in AI service: " + e.getMessage());
+                future.completeExceptionally(new AIServiceException("Failed to execute AI task", e));
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    finishedAt = System.nanoTime();
+                    // Drop an interrupt from a deadline that fired just as the task finished
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        synchronized void interrupt() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        synchronized long elapsedNanos() {
+            if (!started) {
+                return 0;
+            }
+            return (runner == null ? finishedAt : System.nanoTime()) - startedAt;
+        }
+    }
+
+    public record AIMetric(
         String name,
         double value,
         long timestamp,
@@ -150,32 +531,11 @@ public abstract class AIService {
         R process(T input) throws AIServiceException;
     }
 
-    protected class AICache<K, V> {
-        private final Map<K, CacheEntry<V>> cache;
-        private final long ttl;
-
-        protected AICache(long ttl) {
-            this.cache = new HashMap<>();
-            this.ttl = ttl;
-        }
-
-        protected V get(K key) {
-            CacheEntry<V> entry = cache.get(key);
-            if (entry != null && !entry.isExpired()) {
-                return entry.value;
-            }
-            return null;
-        }
-
-        protected void put(K key, V value) {
-            cache.put(key, new CacheEntry<>(value, System.currentTimeMillis() + ttl));
-        }
-
-        private record CacheEntry<V>(V value, long expiryTime) {
-            boolean isExpired() {
-                return System.currentTimeMillis() > expiryTime;
-            }
-        }
+    /**
+     * Processes many inputs in one model call. Results are returned in input order.
+     */
+    public interface AIBatchProcessor<T, R> {
+        List<R> processBatch(List<T> inputs) throws AIServiceException;
     }
 
     protected enum AIModelType {
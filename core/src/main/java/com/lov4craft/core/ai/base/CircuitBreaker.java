@@ -0,0 +1,238 @@
+package com.lov4craft.core.ai.base;
+
+import com.lov4craft.core.ai.config.ServiceConfig;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Stops calling a backend that keeps failing or answering slowly. The
+ * outcomes of the last {@code windowSize} calls are kept; once enough calls
+ * were seen and the failure or slow-call rate crosses its threshold the
+ * breaker opens and calls are rejected without being attempted. After
+ * {@code openDuration} a few trial calls are let through: if all succeed the
+ * breaker closes, if any fails it opens again.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public record Transition(String serviceName, State from, State to, String reason, long timestamp) {
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final String serviceName;
+    private final boolean enabled;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationMillis;
+    private final int halfOpenCalls;
+    private final List<Consumer<Transition>> listeners;
+
+    // Ring of recent outcomes, guarded by this
+    private final byte[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    @Getter
+    private volatile State state;
+
+    @Getter
+    private volatile Transition lastTransition;
+
+    // Calls rejected while open
+    @Getter
+    private final LongAdder shortCircuitedCount;
+
+    public CircuitBreaker(String serviceName, ServiceConfig.CircuitBreakerConfig config) {
+        this.serviceName = serviceName;
+        this.enabled = config.isEnabled();
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getSlowCallThreshold()));
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.outcomes = new byte[Math.max(1, config.getWindowSize())];
+        this.minimumCalls = Math.max(1, Math.min(outcomes.length, config.getMinimumCalls()));
+        this.openDurationMillis = Math.max(1000, config.getOpenDuration());
+        this.halfOpenCalls = Math.max(1, config.getHalfOpenCalls());
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.state = State.CLOSED;
+        this.shortCircuitedCount = new LongAdder();
+    }
+
+    /**
+     * Called with every state change, outside of the breaker's lock and on
+     * whichever thread caused it.
+     */
+    public void addListener(Consumer<Transition> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return whether a call may be attempted now; every permitted call must
+     *         be followed by one of {@link #onSuccess}, {@link #onFailure} or
+     *         {@link #onIgnored}
+     */
+    public boolean tryAcquire() {
+        if (!enabled || state == State.CLOSED) {
+            return true;
+        }
+
+        Transition transition = null;
+        boolean permitted;
+        synchronized (this) {
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMillis) {
+                transition = moveTo(State.HALF_OPEN, "testing after " + openDurationMillis + "ms open");
+            }
+            if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+                permitted = true;
+            } else {
+                permitted = state == State.CLOSED;
+            }
+        }
+        publish(transition);
+
+        if (!permitted) {
+            shortCircuitedCount.increment();
+        }
+        return permitted;
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    public void onFailure(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    /**
+     * For permitted calls whose outcome says nothing about the backend, such
+     * as a rejected or invalid request. Frees the trial slot it held.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls - halfOpenSuccesses) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void record(boolean failed, long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+        boolean slow = durationNanos >= slowCallNanos;
+
+        Transition transition = null;
+        synchronized (this) {
+            switch (state) {
+                case HALF_OPEN:
+                    if (failed || slow) {
+                        transition = open(failed ? "trial call failed" : "trial call was slow");
+                    } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                        clearWindow();
+                        transition = moveTo(State.CLOSED, halfOpenCalls + " trial calls succeeded");
+                    }
+                    break;
+                case CLOSED:
+                    add((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+                    if (recorded >= minimumCalls) {
+                        double failureRate = (double) failures / recorded;
+                        double slowRate = (double) slowCalls / recorded;
+                        if (failureRate >= failureRateThreshold) {
+                            transition = open(String.format("%.0f%% of the last %d calls failed", failureRate * 100, recorded));
+                        } else if (slowRate >= slowCallRateThreshold) {
+                            transition = open(String.format("%.0f%% of the last %d calls were slow", slowRate * 100, recorded));
+                        }
+                    }
+                    break;
+                default:
+                    // Calls started before the breaker opened
+                    break;
+            }
+        }
+        publish(transition);
+    }
+
+    private void add(byte outcome) {
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[position];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        outcomes[position] = outcome;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+        position = (position + 1) % outcomes.length;
+    }
+
+    private void clearWindow() {
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private Transition open(String reason) {
+        openedAt = System.currentTimeMillis();
+        clearWindow();
+        return moveTo(State.OPEN, reason);
+    }
+
+    private Transition moveTo(State next, String reason) {
+        Transition transition = new Transition(serviceName, state, next, reason, System.currentTimeMillis());
+        state = next;
+        lastTransition = transition;
+        if (next == State.HALF_OPEN) {
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        return transition;
+    }
+
+    private void publish(Transition transition) {
+        if (transition == null) {
+            return;
+        }
+        for (Consumer<Transition> listener : listeners) {
+            try {
+                listener.accept(transition);
+            } catch (RuntimeException e) {
+                // A broken listener must not break the call that triggered the change
+            }
+        }
+    }
+
+    public String describe() {
+        int windowCalls;
+        int windowFailures;
+        int windowSlow;
+        synchronized (this) {
+            windowCalls = recorded;
+            windowFailures = failures;
+            windowSlow = slowCalls;
+        }
+        Transition last = lastTransition;
+        return String.format("%s: %s failed=%d/%d slow=%d/%d short-circuited=%d%s", serviceName, state,
+            windowFailures, windowCalls, windowSlow, windowCalls, shortCircuitedCount.sum(),
+            last == null ? "" : String.format(" | last %s -> %s %ds ago: %s", last.from(), last.to(),
+                (System.currentTimeMillis() - last.timestamp()) / 1000, last.reason()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.lov4craft.core.ai.base;
+
+import lombok.Getter;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Fired when an AI service's circuit breaker changes state. Usually fired
+ * off the main thread, check {@link #isAsynchronous()} before touching the
+ * Bukkit API.
+ */
+public class CircuitBreakerEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    @Getter
+    private final CircuitBreaker.Transition transition;
+
+    public CircuitBreakerEvent(CircuitBreaker.Transition transition, boolean async) {
+        super(async);
+        this.transition = transition;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,31 @@
+package com.lov4craft.core.ai.base;
+
+import lombok.Getter;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Fired when a metrics alert of an AI service starts or clears. Usually
+ * fired off the main thread, check {@link #isAsynchronous()} before touching
+ * the Bukkit API.
+ */
+public class MetricAlertEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    @Getter
+    private final MetricsRegistry.Alert alert;
+
+    public MetricAlertEvent(MetricsRegistry.Alert alert, boolean async) {
+        super(async);
+        this.alert = alert;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,203 @@
+package com.lov4craft.core.ai.base;
+
+import com.lov4craft.core.ai.config.ServiceConfig;
+import com.lov4craft.core.util.LatencyHistogram;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Periodic metrics of one AI service. Counters and gauges live in the
+ * service's {@link ServiceState}; this adds a latency histogram per
+ * operation and turns all of it into a report every reporting-interval:
+ * counters as the change since the last report, gauges as their current
+ * value and each operation as {@code <op>.count}, {@code .p50}, {@code .p99},
+ * {@code .p999} and {@code .max} in microseconds over the interval.
+ *
+ * <p>Alerts from the service's metrics config are checked against every
+ * report. Listeners hear when an alert starts and when it clears, not on
+ * every report in between.
+ */
+public class MetricsRegistry {
+    private final String serviceName;
+    private final ServiceState state;
+    private final ServiceConfig.MetricsConfig config;
+    private final Map<String, LatencyHistogram> latencies;
+    private final List<Consumer<Alert>> listeners;
+
+    // Guarded by this
+    private final Map<String, Long> lastCounts;
+    private final Set<ServiceConfig.AlertConfig> firing;
+    private long lastReportAt;
+
+    @Getter
+    private volatile List<AIService.AIMetric> lastReport;
+
+    public record Alert(String serviceName, ServiceConfig.AlertConfig config, double value, boolean resolved,
+                        long timestamp) {
+    }
+
+    public MetricsRegistry(String serviceName, ServiceState state, ServiceConfig.MetricsConfig config) {
+        this.serviceName = serviceName;
+        this.state = state;
+        this.config = config;
+        this.latencies = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.lastCounts = new HashMap<>();
+        this.firing = new HashSet<>();
+        this.lastReportAt = System.currentTimeMillis();
+        this.lastReport = Collections.emptyList();
+    }
+
+    /**
+     * Latency histogram of the operation in microseconds, created on first
+     * use. Keep it in a field on hot paths to skip the map lookup.
+     */
+    public LatencyHistogram latency(String operation) {
+        return latencies.computeIfAbsent(operation, ignored -> new LatencyHistogram());
+    }
+
+    public void recordLatency(String operation, long nanos) {
+        latency(operation).record(nanos / 1000L);
+    }
+
+    public void addListener(Consumer<Alert> listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Whether reports should also be written to the server log rather than
+     * only kept for {@link #getLastReport()}.
+     */
+    public boolean isLogReports() {
+        return "log".equalsIgnoreCase(config.getStorageType());
+    }
+
+    /**
+     * Closes the current interval: builds its report, checks the alerts and
+     * starts the next interval. Metrics not listed in tracked-metrics are
+     * left out of the report but still checked by alerts.
+     */
+    public List<AIService.AIMetric> report() {
+        List<AIService.AIMetric> metrics = new ArrayList<>();
+        List<Alert> changes = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Map<String, Object> tags = Map.of("service", serviceName, "interval", now - lastReportAt);
+            lastReportAt = now;
+
+            Map<String, Double> values = new HashMap<>();
+            state.forEachCounter((name, count) -> {
+                Long previous = lastCounts.put(name, count);
+                // A cleared state restarts its counters from zero
+                values.put(name, (double) (previous == null || previous > count ? count : count - previous));
+            });
+            state.forEachGauge(values::put);
+            latencies.forEach((operation, histogram) -> {
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot(true);
+                values.put(operation + ".count", (double) snapshot.getCount());
+                if (snapshot.getCount() > 0) {
+                    values.put(operation + ".p50", (double) snapshot.getValueAtPercentile(50));
+                    values.put(operation + ".p99", (double) snapshot.getValueAtPercentile(99));
+                    values.put(operation + ".p999", (double) snapshot.getValueAtPercentile(99.9));
+                    values.put(operation + ".max", (double) snapshot.getMax());
+                }
+            });
+
+            for (Map.Entry<String, Double> entry : values.entrySet()) {
+                if (isTracked(entry.getKey())) {
+                    metrics.add(new AIService.AIMetric(entry.getKey(), entry.getValue(), now, tags));
+                }
+            }
+            metrics.sort((a, b) -> a.name().compareTo(b.name()));
+
+            for (ServiceConfig.AlertConfig alert : config.getAlerts()) {
+                Double value = values.get(alert.getMetric());
+                boolean breached = value != null && breaches(value, alert.getCondition(), alert.getThreshold());
+                if (breached && firing.add(alert)) {
+                    changes.add(new Alert(serviceName, alert, value, false, now));
+                } else if (!breached && firing.remove(alert)) {
+                    changes.add(new Alert(serviceName, alert, value != null ? value : 0.0, true, now));
+                }
+            }
+        }
+        lastReport = Collections.unmodifiableList(metrics);
+
+        for (Alert change : changes) {
+            for (Consumer<Alert> listener : listeners) {
+                try {
+                    listener.accept(change);
+                } catch (RuntimeException e) {
+                    // A broken listener must not stop reporting
+                }
+            }
+        }
+        return lastReport;
+    }
+
+    /**
+     * An operation is tracked by its own name or by any of its metrics.
+     */
+    private boolean isTracked(String metric) {
+        List<String> tracked = config.getTrackedMetrics();
+        if (tracked == null || tracked.isEmpty() || tracked.contains(metric)) {
+            return true;
+        }
+        int dot = metric.lastIndexOf('.');
+        return dot > 0 && tracked.contains(metric.substring(0, dot));
+    }
+
+    private static boolean breaches(double value, String condition, double threshold) {
+        switch (condition) {
+            case ">":
+                return value > threshold;
+            case ">=":
+                return value >= threshold;
+            case "<":
+                return value < threshold;
+            case "<=":
+                return value <= threshold;
+            case "==":
+                return value == threshold;
+            case "!=":
+                return value != threshold;
+            default:
+                return false;
+        }
+    }
+
+    public String describe() {
+        StringBuilder builder = new StringBuilder(serviceName + ":");
+        List<String> operations = new ArrayList<>(latencies.keySet());
+        Collections.sort(operations);
+        for (String operation : operations) {
+            // Covers the interval so far; not reset, so the next report still sees it
+            LatencyHistogram.Snapshot snapshot = latencies.get(operation).snapshot();
+            builder.append(String.format(" %s count=%d p50=%dus p99=%dus p999=%dus max=%dus", operation,
+                snapshot.getCount(), snapshot.getValueAtPercentile(50), snapshot.getValueAtPercentile(99),
+                snapshot.getValueAtPercentile(99.9), snapshot.getMax()));
+        }
+        synchronized (this) {
+            if (!firing.isEmpty()) {
+                builder.append(" | firing");
+                for (ServiceConfig.AlertConfig alert : firing) {
+                    builder.append(' ').append(alert.getMetric()).append(alert.getCondition()).append(alert.getThreshold());
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
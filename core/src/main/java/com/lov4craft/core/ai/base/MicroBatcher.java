@@ -0,0 +1,202 @@
+package com.lov4craft.core.ai.base;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Groups single inference requests into batches for a model that is much
+ * cheaper per item when run on many inputs at once. A batch is dispatched
+ * when it holds {@code maxBatchSize} items or its oldest item has waited
+ * {@code maxDelayMillis}, whichever comes first, so no caller waits longer
+ * than the delay plus one batch.
+ *
+ * <p>Collection runs on one daemon thread; batches run on the given executor.
+ */
+public class MicroBatcher<T, R> {
+    private final String name;
+    private final AIService.AIBatchProcessor<T, R> processor;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Executor executor;
+    private final BlockingQueue<Pending<T, R>> queue;
+    private final Thread collector;
+    private volatile boolean running;
+
+    @Getter
+    private final LongAdder batchCount;
+
+    @Getter
+    private final LongAdder itemCount;
+
+    // Batches sent because they were full rather than because the delay ran out
+    @Getter
+    private final LongAdder fullBatchCount;
+
+    @Getter
+    private final LongAdder rejectedCount;
+
+    /**
+     * @param queueCapacity requests waiting to be batched; further requests fail fast
+     */
+    public MicroBatcher(String name, AIService.AIBatchProcessor<T, R> processor, int maxBatchSize,
+                        long maxDelayMillis, int queueCapacity, Executor executor) {
+        this.name = name;
+        this.processor = processor;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+        this.executor = executor;
+        this.queue = new LinkedBlockingQueue<>(Math.max(this.maxBatchSize, queueCapacity));
+        this.batchCount = new LongAdder();
+        this.itemCount = new LongAdder();
+        this.fullBatchCount = new LongAdder();
+        this.rejectedCount = new LongAdder();
+        this.running = true;
+
+        this.collector = new Thread(this::collectLoop, "LOV4CRAFT-Batcher-" + name);
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * Queues one input. The future completes with this input's own result,
+     * or exceptionally if its batch failed.
+     */
+    public CompletableFuture<R> submit(T input) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new AIService.AIServiceException(name + " batcher is shut down"));
+        }
+        Pending<T, R> pending = new Pending<>(input, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejectedCount.increment();
+            return CompletableFuture.failedFuture(new AIService.AIServiceException(name + " is overloaded, try again later"));
+        }
+        return pending.future();
+    }
+
+    private void collectLoop() {
+        while (running || !queue.isEmpty()) {
+            List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+            try {
+                Pending<T, R> first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown; dispatch what was collected and drain the rest
+                queue.drainTo(batch);
+            }
+
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        }
+
+        // Requests that raced with shutdown
+        List<Pending<T, R>> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        fail(leftover, new AIService.AIServiceException(name + " batcher is shut down"));
+    }
+
+    private void dispatch(List<Pending<T, R>> batch) {
+        batchCount.increment();
+        itemCount.add(batch.size());
+        if (batch.size() >= maxBatchSize) {
+            fullBatchCount.increment();
+        }
+        try {
+            executor.execute(() -> run(batch));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.add(batch.size());
+            fail(batch, new AIService.AIServiceException(name + " is overloaded, try again later", e));
+        }
+    }
+
+    private void run(List<Pending<T, R>> batch) {
+        List<T> inputs = new ArrayList<>(batch.size());
+        for (Pending<T, R> pending : batch) {
+            inputs.add(pending.input());
+        }
+
+        List<R> results;
+        try {
+            results = processor.processBatch(inputs);
+        } catch (Throwable e) {
+            // Callers would otherwise wait forever, e.g. on an OutOfMemoryError
+            fail(batch, e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+            return;
+        }
+        if (results == null || results.size() != batch.size()) {
+            fail(batch, new AIService.AIServiceException(name + " returned "
+                + (results == null ? "no" : results.size()) + " results for " + batch.size() + " inputs"));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(results.get(i));
+        }
+    }
+
+    private static <T, R> void fail(List<Pending<T, R>> batch, Throwable error) {
+        for (Pending<T, R> pending : batch) {
+            pending.future().completeExceptionally(error);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.sum();
+        return batches == 0 ? 0.0 : (double) itemCount.sum() / batches;
+    }
+
+    public String describe() {
+        return String.format("%s: batches=%d items=%d avg=%.1f/%d full=%d queued=%d rejected=%d", name,
+            batchCount.sum(), itemCount.sum(), getAverageBatchSize(), maxBatchSize, fullBatchCount.sum(),
+            getQueueDepth(), rejectedCount.sum());
+    }
+
+    /**
+     * Stops accepting requests and dispatches everything already queued.
+     */
+    public void shutdown() {
+        running = false;
+        collector.interrupt();
+        try {
+            collector.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Pending<T, R>(T input, CompletableFuture<R> future) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.lov4craft.core.ai.base;
+
+import com.lov4craft.core.LOV4CraftCore;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports virtual threads of AI services that stay pinned to their carrier
+ * thread, usually by blocking inside a synchronized block or native frame.
+ * A pinned virtual thread holds a carrier like a platform thread would, so
+ * enough of them starve every other virtual thread on the server.
+ *
+ * <p>Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process;
+ * on JVMs without virtual threads the event never fires.
+ */
+public class PinningMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 5;
+
+    private final LOV4CraftCore plugin;
+    private final List<AIExecutor> executors;
+    private final long thresholdMillis;
+    private final AtomicLong lastWarning;
+    private RecordingStream stream;
+
+    public PinningMonitor(LOV4CraftCore plugin, List<AIExecutor> executors, long thresholdMillis) {
+        this.plugin = plugin;
+        this.executors = List.copyOf(executors);
+        this.thresholdMillis = Math.max(1, thresholdMillis);
+        this.lastWarning = new AtomicLong();
+    }
+
+    public void start() {
+        if (executors.isEmpty()) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+        } catch (RuntimeException e) {
+            // JFR may be disabled or restricted by the host
+            plugin.getLogger().warning("Virtual thread pinning detection unavailable: " + e.getMessage());
+            stream = null;
+        }
+    }
+
+    public void shutdown() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        String threadName = thread != null ? thread.getJavaName() : null;
+        if (threadName == null) {
+            return;
+        }
+        for (AIExecutor executor : executors) {
+            if (threadName.startsWith(executor.getThreadPrefix())) {
+                executor.getPinnedCount().increment();
+                warn(threadName, event);
+                return;
+            }
+        }
+    }
+
+    private void warn(String threadName, RecordedEvent event) {
+        long now = System.currentTimeMillis();
+        long last = lastWarning.get();
+        if (now - last < 60000L || !lastWarning.compareAndSet(last, now)) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder()
+            .append(threadName).append(" was pinned to its carrier for ")
+            .append(event.getDuration().toMillis()).append("ms");
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            List<RecordedFrame> frames = stackTrace.getFrames();
+            for (int i = 0; i < Math.min(REPORTED_FRAMES, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                message.append("\n    at ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+            }
+        }
+        plugin.getLogger().warning(message.toString());
+    }
+}
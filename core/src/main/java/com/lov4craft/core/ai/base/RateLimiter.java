@@ -0,0 +1,295 @@
+package com.lov4craft.core.ai.base;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.ai.config.ServiceConfig;
+import com.lov4craft.core.redis.RedisManager;
+import com.lov4craft.core.util.TokenBucket;
+import lombok.Getter;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Per-subject request limiter for one AI service, driven by its
+ * {@link ServiceConfig.RateLimitConfig}. A local token bucket rejects floods
+ * without leaving the server; requests it lets through are checked against
+ * a bucket in Redis so the limit also holds across servers. Subjects that
+ * run dry are blocked for the penalty timeout.
+ */
+public class RateLimiter {
+    /**
+     * GCRA bucket plus penalty flag, using the Redis clock so servers with
+     * skewed clocks still share one bucket. Returns 1 if allowed, 0 if the
+     * bucket is empty and -1 while a penalty is active.
+     */
+    private static final String SCRIPT = """
+        if redis.call('EXISTS', KEYS[2]) == 1 then
+          return -1
+        end
+        if redis.replicate_commands then
+          redis.replicate_commands()
+        end
+        local time = redis.call('TIME')
+        local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+        local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+        if tat < now then
+          tat = now
+        end
+        local nextTat = tat + tonumber(ARGV[1])
+        if nextTat - now > tonumber(ARGV[2]) then
+          if tonumber(ARGV[3]) > 0 then
+            redis.call('SET', KEYS[2], 1, 'PX', ARGV[3])
+          end
+          return 0
+        end
+        redis.call('SET', KEYS[1], string.format('%.0f', nextTat), 'PX', math.ceil((nextTat - now) / 1000) + 1)
+        return 1
+        """;
+    private static final String PERMISSION_PREFIX = "lov4craft.ai.ratelimit.";
+    private static final int SWEEP_EVERY = 4096;
+
+    private final LOV4CraftCore plugin;
+    private final String serviceName;
+    private final boolean enabled;
+    private final long penaltyMillis;
+    private final Limit defaultLimit;
+    private final Map<String, Limit> customLimits;
+    private final Map<String, Long> penalties;
+    private final String keyPrefix;
+    private final AtomicLong sweepCounter;
+    private final AtomicLong lastRedisWarning;
+    private final boolean distributed;
+    private volatile String scriptSha;
+
+    @Getter
+    private final LongAdder allowed;
+
+    @Getter
+    private final LongAdder throttledLocal;
+
+    @Getter
+    private final LongAdder throttledGlobal;
+
+    @Getter
+    private final LongAdder penalized;
+
+    public RateLimiter(LOV4CraftCore plugin, String serviceName, ServiceConfig.RateLimitConfig config) {
+        this.plugin = plugin;
+        this.serviceName = serviceName;
+        this.enabled = config.isEnabled();
+        this.penaltyMillis = Math.max(0, config.getPenaltyTimeout());
+        this.distributed = config.isDistributed();
+
+        int requestsPerSecond = Math.max(1, config.getRequestsPerSecond());
+        int burstSize = Math.max(1, config.getBurstSize());
+        this.defaultLimit = new Limit("default", requestsPerSecond, burstSize);
+
+        // Custom limits keep the default burst-to-rate ratio
+        this.customLimits = new HashMap<>();
+        config.getCustomLimits().forEach((group, rate) -> {
+            int customRate = Math.max(1, rate);
+            int customBurst = Math.max(1, (int) Math.round((double) burstSize * customRate / requestsPerSecond));
+            customLimits.put(group, new Limit(group, customRate, customBurst));
+        });
+
+        this.penalties = new ConcurrentHashMap<>();
+        this.keyPrefix = plugin.getConfigManager().getConfig("redis.yml").getString("redis.key-prefix", "lov4craft:")
+            + "ratelimit:" + serviceName + ":";
+        this.sweepCounter = new AtomicLong();
+        this.lastRedisWarning = new AtomicLong();
+        this.allowed = new LongAdder();
+        this.throttledLocal = new LongAdder();
+        this.throttledGlobal = new LongAdder();
+        this.penalized = new LongAdder();
+    }
+
+    /**
+     * Picks the most generous custom limit the holder has a
+     * {@code lov4craft.ai.ratelimit.<group>} permission for, or null for the
+     * default limit. Call on the main thread, where permissions are safe to read.
+     */
+    public String resolveGroup(Predicate<String> hasPermission) {
+        Limit best = null;
+        for (Limit limit : customLimits.values()) {
+            if ((best == null || limit.requestsPerSecond() > best.requestsPerSecond())
+                && hasPermission.test(PERMISSION_PREFIX + limit.name())) {
+                best = limit;
+            }
+        }
+        return best != null ? best.name() : null;
+    }
+
+    /**
+     * Local tier. Never blocks, safe to call from any thread.
+     *
+     * @param group custom limit from {@link #resolveGroup}, or null
+     */
+    public boolean tryAcquireLocal(String subject, String group) {
+        if (!enabled) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        Long penaltyUntil = penalties.get(subject);
+        if (penaltyUntil != null) {
+            if (penaltyUntil > now) {
+                penalized.increment();
+                return false;
+            }
+            penalties.remove(subject, penaltyUntil);
+        }
+
+        if (sweepCounter.incrementAndGet() % SWEEP_EVERY == 0) {
+            sweep(now);
+        }
+
+        Limit limit = limitFor(group);
+        if (limit.buckets().computeIfAbsent(subject, ignored -> limit.newBucket()).tryAcquire()) {
+            return true;
+        }
+        throttledLocal.increment();
+        penalize(subject, now);
+        return false;
+    }
+
+    /**
+     * Shared tier, checked after the local one. The Redis round trip runs on
+     * the Redis executor, so no caller's thread waits for it. Fails open when
+     * Redis is unavailable; the local tier still applies then.
+     *
+     * @return whether the request is allowed
+     */
+    public CompletableFuture<Boolean> tryAcquireGlobal(String subject, String group) {
+        if (!enabled || !distributed) {
+            allowed.increment();
+            return CompletableFuture.completedFuture(true);
+        }
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            allowed.increment();
+            return CompletableFuture.completedFuture(true);
+        }
+
+        Limit limit = limitFor(group);
+        List<String> keys = List.of(keyPrefix + limit.name() + ":" + subject, keyPrefix + "penalty:" + subject);
+        List<String> args = List.of(Long.toString(limit.intervalMicros()), Long.toString(limit.toleranceMicros()),
+            Long.toString(penaltyMillis));
+        return redis.executeAsync("EVALSHA", jedis -> {
+            String sha = scriptSha;
+            if (sha == null) {
+                sha = scriptSha = jedis.scriptLoad(SCRIPT);
+            }
+            try {
+                return (Long) jedis.evalsha(sha, keys, args);
+            } catch (JedisNoScriptException e) {
+                // Script cache was flushed, e.g. after a Redis restart
+                scriptSha = jedis.scriptLoad(SCRIPT);
+                return (Long) jedis.evalsha(scriptSha, keys, args);
+            }
+        }).handle((result, error) -> {
+            if (error != null) {
+                warnRedis(error);
+                allowed.increment();
+                return true;
+            }
+            return onGlobalResult(subject, result);
+        });
+    }
+
+    private boolean onGlobalResult(String subject, long result) {
+        if (result == 1) {
+            allowed.increment();
+            return true;
+        }
+        if (result == 0) {
+            throttledGlobal.increment();
+            penalize(subject, System.currentTimeMillis());
+        } else {
+            penalized.increment();
+        }
+        return false;
+    }
+
+    public long getThrottledCount() {
+        return throttledLocal.sum() + throttledGlobal.sum() + penalized.sum();
+    }
+
+    public String describe() {
+        return String.format("%s: allowed=%d throttled local=%d global=%d penalized=%d | subjects=%d penalties=%d",
+            serviceName, allowed.sum(), throttledLocal.sum(), throttledGlobal.sum(), penalized.sum(),
+            bucketCount(), penalties.size());
+    }
+
+    private Limit limitFor(String group) {
+        if (group == null) {
+            return defaultLimit;
+        }
+        return customLimits.getOrDefault(group, defaultLimit);
+    }
+
+    private void penalize(String subject, long now) {
+        if (penaltyMillis > 0) {
+            penalties.put(subject, now + penaltyMillis);
+        }
+    }
+
+    /**
+     * Drops full buckets and expired penalties so the maps only hold
+     * recently active subjects.
+     */
+    private void sweep(long now) {
+        long nanos = System.nanoTime();
+        defaultLimit.buckets().values().removeIf(bucket -> bucket.isFull(nanos));
+        for (Limit limit : customLimits.values()) {
+            limit.buckets().values().removeIf(bucket -> bucket.isFull(nanos));
+        }
+        penalties.values().removeIf(until -> until <= now);
+    }
+
+    private int bucketCount() {
+        int count = defaultLimit.buckets().size();
+        for (Limit limit : customLimits.values()) {
+            count += limit.buckets().size();
+        }
+        return count;
+    }
+
+    private void warnRedis(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        long now = System.currentTimeMillis();
+        long last = lastRedisWarning.get();
+        if (now - last >= 60000L && lastRedisWarning.compareAndSet(last, now)) {
+            plugin.getLogger().warning("Shared rate limit for " + serviceName + " unavailable, using local limits only: "
+                + e.getMessage());
+        }
+    }
+
+    private record Limit(String name, int requestsPerSecond, int burstSize, Map<String, TokenBucket> buckets) {
+        Limit(String name, int requestsPerSecond, int burstSize) {
+            this(name, requestsPerSecond, burstSize, new ConcurrentHashMap<>());
+        }
+
+        TokenBucket newBucket() {
+            return new TokenBucket(requestsPerSecond, burstSize);
+        }
+
+        long intervalMicros() {
+            return Math.max(1L, TimeUnit.SECONDS.toMicros(1) / requestsPerSecond);
+        }
+
+        long toleranceMicros() {
+            return intervalMicros() * burstSize;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.lov4craft.core.ai.base;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for AI requests: while a request for a key is running,
+ * further requests for the same key get its result instead of starting
+ * their own. Nothing is kept once the request completes, pair it with an
+ * {@link AICache} to reuse results after that.
+ *
+ * <p>Each caller gets its own copy of the shared future, so one caller
+ * cancelling or completing it does not affect the others.
+ */
+public class RequestCoalescer<K> {
+    private final String name;
+    private final Map<K, CompletableFuture<?>> inFlight;
+
+    @Getter
+    private final LongAdder requestCount;
+
+    // Requests answered by a call that was already in flight
+    @Getter
+    private final LongAdder coalescedCount;
+
+    public RequestCoalescer(String name) {
+        this.name = name;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.requestCount = new LongAdder();
+        this.coalescedCount = new LongAdder();
+    }
+
+    /**
+     * Joins the in-flight call for the key or starts one with the loader.
+     * Keys must identify the result type; the loader runs on the calling
+     * thread and may complete synchronously.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(K key, Supplier<CompletableFuture<T>> loader) {
+        requestCount.increment();
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalescedCount.increment();
+            return ((CompletableFuture<T>) existing).copy();
+        }
+
+        try {
+            loader.get().whenComplete((result, error) -> {
+                // Removed first so requests arriving after completion start a fresh call
+                inFlight.remove(key, shared);
+                if (error != null) {
+                    shared.completeExceptionally(error);
+                } else {
+                    shared.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Share of requests that did not need a call of their own.
+     */
+    public double getCoalescingRatio() {
+        long requests = requestCount.sum();
+        return requests == 0 ? 0.0 : (double) coalescedCount.sum() / requests;
+    }
+
+    public String describe() {
+        return String.format("%s: requests=%d coalesced=%d (%.1f%%) in-flight=%d", name, requestCount.sum(),
+            coalescedCount.sum(), getCoalescingRatio() * 100, getInFlightCount());
+    }
+}
@@ -0,0 +1,112 @@
+package com.lov4craft.core.ai.base;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Runtime state of one AI service, safe to update from any thread. Counters
+ * are {@link LongAdder}s and settable gauges hold a primitive double, so hot
+ * paths that keep the handle in a field neither box nor contend on a lock.
+ * Values that only need their latest setting, such as a status string, go
+ * into last-value slots.
+ */
+public class ServiceState {
+    private final Map<String, LongAdder> counters;
+    private final Map<String, Gauge> gauges;
+    private final Map<String, DoubleSupplier> suppliedGauges;
+    private final Map<String, Object> values;
+
+    public ServiceState() {
+        this.counters = new ConcurrentHashMap<>();
+        this.gauges = new ConcurrentHashMap<>();
+        this.suppliedGauges = new ConcurrentHashMap<>();
+        this.values = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Counter handle, created on first use. Keep it in a field on hot paths
+     * to skip the map lookup.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, ignored -> new LongAdder());
+    }
+
+    public void increment(String name) {
+        counter(name).increment();
+    }
+
+    public Gauge gauge(String name) {
+        return gauges.computeIfAbsent(name, ignored -> new Gauge());
+    }
+
+    public void setGauge(String name, double value) {
+        gauge(name).set(value);
+    }
+
+    /**
+     * Gauge computed when a snapshot is taken, e.g. the size of a session map.
+     */
+    public void gauge(String name, DoubleSupplier supplier) {
+        suppliedGauges.put(name, supplier);
+    }
+
+    public void set(String name, Object value) {
+        if (value == null) {
+            values.remove(name);
+        } else {
+            values.put(name, value);
+        }
+    }
+
+    public Object get(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * Point-in-time copy of everything, sorted by name. Counters are not read
+     * atomically with each other, which is fine for status output.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>(values);
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.get()));
+        suppliedGauges.forEach((name, supplier) -> snapshot.put(name, supplier.getAsDouble()));
+        return snapshot;
+    }
+
+    public void forEachCounter(ObjLongConsumer<String> action) {
+        counters.forEach((name, counter) -> action.accept(name, counter.sum()));
+    }
+
+    public void forEachGauge(ObjDoubleConsumer<String> action) {
+        gauges.forEach((name, gauge) -> action.accept(name, gauge.get()));
+        suppliedGauges.forEach((name, supplier) -> action.accept(name, supplier.getAsDouble()));
+    }
+
+    /**
+     * Resets counters and gauges and drops last values. Handles held by
+     * callers stay registered and keep working.
+     */
+    public void clear() {
+        counters.values().forEach(LongAdder::reset);
+        gauges.values().forEach(gauge -> gauge.set(0));
+        values.clear();
+    }
+
+    public static final class Gauge {
+        private volatile double value;
+
+        public void set(double value) {
+            this.value = value;
+        }
+
+        public double get() {
+            return value;
+        }
+    }
+}
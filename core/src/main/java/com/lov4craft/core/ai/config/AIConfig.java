@@ -35,6 +35,7 @@ public class AIConfig {
 
         FileConfiguration config = YamlConfiguration.loadConfiguration(configFile);
         loadGlobalConfig(config.getConfigurationSection("global"));
+        globalConfig.getPerformanceConfig().load(config.getConfigurationSection("performance"));
         loadModelConfigs(config.getConfigurationSection("models"));
         loadServiceConfigs(config.getConfigurationSection("services"));
         validateConfigurations();
@@ -101,6 +102,23 @@ public class AIConfig {
             if (!modelConfigs.containsKey(modelName)) {
                 plugin.getLogger().warning("Service references non-existent model: " + modelName);
             }
+
+            ServiceConfig.MetricsConfig metrics = serviceConfig.getMetricsConfig();
+            if (metrics.getReportingInterval() < 1000) {
+                plugin.getLogger().warning("Invalid metrics reporting-interval value, using default: 60000");
+                metrics.setReportingInterval(60000);
+            }
+            if (!"memory".equalsIgnoreCase(metrics.getStorageType()) && !"log".equalsIgnoreCase(metrics.getStorageType())) {
+                plugin.getLogger().warning("Unsupported metrics storage-type " + metrics.getStorageType() + ", using memory");
+                metrics.setStorageType("memory");
+            }
+            metrics.getAlerts().removeIf(alert -> {
+                if (alert.isValidCondition()) {
+                    return false;
+                }
+                plugin.getLogger().warning("Ignoring alert on " + alert.getMetric() + " with invalid condition: " + alert.getCondition());
+                return true;
+            });
         }
 
         // Validate performance settings
@@ -109,6 +127,26 @@ public class AIConfig {
             globalConfig.getPerformanceConfig().setMaxConcurrentRequests(10);
         }
 
+        GlobalConfig.ThreadPoolConfig threadPool = globalConfig.getPerformanceConfig().getThreadPoolConfig();
+        if (threadPool.getCoreSize() < 1 || threadPool.getMaxSize() < threadPool.getCoreSize()) {
+            plugin.getLogger().warning("Invalid thread-pool sizes, using defaults: core-size 4, max-size 8");
+            threadPool.setCoreSize(4);
+            threadPool.setMaxSize(8);
+        }
+        if (threadPool.getQueueCapacity() < 1) {
+            plugin.getLogger().warning("Invalid thread-pool queue-capacity value, using default: 100");
+            threadPool.setQueueCapacity(100);
+        }
+
+        if (globalConfig.getPerformanceConfig().getCacheMaxSize() < 0) {
+            plugin.getLogger().warning("Invalid caching max-size value, using default: 1000");
+            globalConfig.getPerformanceConfig().setCacheMaxSize(1000);
+        }
+        if (globalConfig.getPerformanceConfig().getCacheExpiration() < 1000) {
+            plugin.getLogger().warning("Invalid caching ttl value, using default: 3600");
+            globalConfig.getPerformanceConfig().setCacheExpiration(3600000);
+        }
+
         // Validate security settings
         if (globalConfig.getSecurityConfig().getMaxRequestsPerMinute() < 1) {
             plugin.getLogger().warning("Invalid maxRequestsPerMinute value, using default: 60");
@@ -64,6 +64,9 @@ public class GlobalConfig {
         private int maxRetries;
         private boolean enableCaching;
         private long cacheExpiration;
+        private int cacheMaxSize;
+        private ThreadPoolConfig threadPoolConfig;
+        private long pinningThreshold;
 
         public PerformanceConfig() {
             this.maxConcurrentRequests = 10;
@@ -71,6 +74,9 @@ public class GlobalConfig {
             this.maxRetries = 3;
             this.enableCaching = true;
             this.cacheExpiration = 3600000;
+            this.cacheMaxSize = 1000;
+            this.threadPoolConfig = new ThreadPoolConfig();
+            this.pinningThreshold = 20;
         }
 
         public void load(ConfigurationSection config) {
@@ -81,6 +87,49 @@ public class GlobalConfig {
             this.maxRetries = config.getInt("max-retries", maxRetries);
             this.enableCaching = config.getBoolean("enable-caching", enableCaching);
             this.cacheExpiration = config.getLong("cache-expiration", cacheExpiration);
+            this.pinningThreshold = config.getLong("pinning-threshold", pinningThreshold);
+
+            // Load cache settings, ttl is in seconds
+            ConfigurationSection cacheSection = config.getConfigurationSection("caching");
+            if (cacheSection != null) {
+                this.enableCaching = cacheSection.getBoolean("enabled", enableCaching);
+                this.cacheMaxSize = cacheSection.getInt("max-size", cacheMaxSize);
+                this.cacheExpiration = cacheSection.getLong("ttl", cacheExpiration / 1000) * 1000;
+            }
+
+            // Load thread pool config
+            ConfigurationSection poolSection = config.getConfigurationSection("thread-pool");
+            if (poolSection != null) {
+                threadPoolConfig.load(poolSection);
+            }
+        }
+    }
+
+    /**
+     * Sizing of the executor each AI service gets to itself.
+     */
+    @Getter
+    @Setter
+    public static class ThreadPoolConfig {
+        private int coreSize;
+        private int maxSize;
+        private int queueCapacity;
+        private long keepAlive;
+
+        public ThreadPoolConfig() {
+            this.coreSize = 4;
+            this.maxSize = 8;
+            this.queueCapacity = 100;
+            this.keepAlive = 60000;
+        }
+
+        public void load(ConfigurationSection config) {
+            if (config == null) return;
+
+            this.coreSize = config.getInt("core-size", coreSize);
+            this.maxSize = config.getInt("max-size", maxSize);
+            this.queueCapacity = config.getInt("queue-capacity", queueCapacity);
+            this.keepAlive = config.getLong("keep-alive", keepAlive);
         }
     }
 
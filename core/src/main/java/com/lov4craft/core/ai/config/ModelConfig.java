@@ -20,6 +20,7 @@ public class ModelConfig {
     private int batchSize;
     private List<Integer> layerSizes;
     private Map<String, Double> weights;
+    private InferenceConfig inferenceConfig;
 
     public ModelConfig() {
         this.modelType = "default";
@@ -31,6 +32,7 @@ public class ModelConfig {
         this.batchSize = 32;
         this.layerSizes = Arrays.asList(64, 32, 16);
         this.weights = new HashMap<>();
+        this.inferenceConfig = new InferenceConfig();
     }
 
     public void load(ConfigurationSection config) {
@@ -62,6 +64,12 @@ public class ModelConfig {
             weightsSection.getKeys(false).forEach(key ->
                 weights.put(key, weightsSection.getDouble(key)));
         }
+
+        // Load inference config
+        ConfigurationSection inferenceSection = config.getConfigurationSection("inference");
+        if (inferenceSection != null) {
+            inferenceConfig.load(inferenceSection);
+        }
     }
 
     @Getter
@@ -148,12 +156,14 @@ public class ModelConfig {
     public static class InferenceConfig {
         private double confidenceThreshold;
         private int maxBatchSize;
+        private long maxBatchDelay;
         private boolean useCache;
         private long cacheTimeout;
 
         public InferenceConfig() {
             this.confidenceThreshold = 0.7;
             this.maxBatchSize = 32;
+            this.maxBatchDelay = 5;
             this.useCache = true;
             this.cacheTimeout = 3600000; // 1 hour
         }
@@ -163,6 +173,7 @@ public class ModelConfig {
             
             this.confidenceThreshold = config.getDouble("confidence-threshold", confidenceThreshold);
             this.maxBatchSize = config.getInt("max-batch-size", maxBatchSize);
+            this.maxBatchDelay = config.getLong("max-batch-delay", maxBatchDelay);
             this.useCache = config.getBoolean("use-cache", useCache);
             this.cacheTimeout = config.getLong("cache-timeout", cacheTimeout);
         }
@@ -19,19 +19,31 @@ public class ServiceConfig {
     private double confidenceThreshold;
     private long requestTimeout;
     private int maxRetries;
+    private long retryBackoff;
+    private long maxRetryBackoff;
     private Map<String, Object> parameters;
     private RateLimitConfig rateLimitConfig;
     private MetricsConfig metricsConfig;
+    private CircuitBreakerConfig circuitBreakerConfig;
+    private GlobalConfig.ThreadPoolConfig threadPoolConfig;
+    private boolean virtualThreads;
+    private int maxConcurrency;
 
     public ServiceConfig() {
         this.enabled = true;
         this.modelName = "default";
         this.confidenceThreshold = 0.7;
         this.requestTimeout = 5000;
-        this.maxRetries = 3;
+        // Opt-in: only services whose requests are safe to repeat should retry
+        this.maxRetries = 0;
+        this.retryBackoff = 100;
+        this.maxRetryBackoff = 2000;
         this.parameters = new HashMap<>();
         this.rateLimitConfig = new RateLimitConfig();
         this.metricsConfig = new MetricsConfig();
+        this.circuitBreakerConfig = new CircuitBreakerConfig();
+        this.virtualThreads = false;
+        this.maxConcurrency = 256;
     }
 
     public void load(ConfigurationSection config) {
@@ -42,6 +54,10 @@ public class ServiceConfig {
         this.confidenceThreshold = config.getDouble("confidence-threshold", confidenceThreshold);
         this.requestTimeout = config.getLong("request-timeout", requestTimeout);
         this.maxRetries = config.getInt("max-retries", maxRetries);
+        this.retryBackoff = config.getLong("retry-backoff", retryBackoff);
+        this.maxRetryBackoff = config.getLong("max-retry-backoff", maxRetryBackoff);
+        this.virtualThreads = config.getBoolean("virtual-threads", virtualThreads);
+        this.maxConcurrency = config.getInt("max-concurrency", maxConcurrency);
 
         // Load parameters
         ConfigurationSection paramsSection = config.getConfigurationSection("parameters");
@@ -61,6 +77,19 @@ public class ServiceConfig {
         if (metricsSection != null) {
             metricsConfig.load(metricsSection);
         }
+
+        // Load circuit breaker config
+        ConfigurationSection breakerSection = config.getConfigurationSection("circuit-breaker");
+        if (breakerSection != null) {
+            circuitBreakerConfig.load(breakerSection);
+        }
+
+        // Load thread pool override, services without one use performance.thread-pool
+        ConfigurationSection poolSection = config.getConfigurationSection("thread-pool");
+        if (poolSection != null) {
+            threadPoolConfig = new GlobalConfig.ThreadPoolConfig();
+            threadPoolConfig.load(poolSection);
+        }
     }
 
     @Getter
@@ -70,6 +99,7 @@ public class ServiceConfig {
         private int requestsPerSecond;
         private int burstSize;
         private long penaltyTimeout;
+        private boolean distributed;
         private Map<String, Integer> customLimits;
 
         public RateLimitConfig() {
@@ -77,6 +107,7 @@ public class ServiceConfig {
             this.requestsPerSecond = 10;
             this.burstSize = 20;
             this.penaltyTimeout = 60000;
+            this.distributed = true;
             this.customLimits = new HashMap<>();
         }
 
@@ -87,6 +118,7 @@ public class ServiceConfig {
             this.requestsPerSecond = config.getInt("requests-per-second", requestsPerSecond);
             this.burstSize = config.getInt("burst-size", burstSize);
             this.penaltyTimeout = config.getLong("penalty-timeout", penaltyTimeout);
+            this.distributed = config.getBoolean("distributed", distributed);
 
             // Load custom limits
             ConfigurationSection limitsSection = config.getConfigurationSection("custom-limits");
@@ -97,6 +129,43 @@ public class ServiceConfig {
         }
     }
 
+    @Getter
+    @Setter
+    public static class CircuitBreakerConfig {
+        private boolean enabled;
+        private double failureRateThreshold;
+        private long slowCallThreshold;
+        private double slowCallRateThreshold;
+        private int minimumCalls;
+        private int windowSize;
+        private long openDuration;
+        private int halfOpenCalls;
+
+        public CircuitBreakerConfig() {
+            this.enabled = true;
+            this.failureRateThreshold = 0.5;
+            this.slowCallThreshold = 2000;
+            this.slowCallRateThreshold = 0.8;
+            this.minimumCalls = 10;
+            this.windowSize = 50;
+            this.openDuration = 30000;
+            this.halfOpenCalls = 3;
+        }
+
+        public void load(ConfigurationSection config) {
+            if (config == null) return;
+
+            this.enabled = config.getBoolean("enabled", enabled);
+            this.failureRateThreshold = config.getDouble("failure-rate-threshold", failureRateThreshold);
+            this.slowCallThreshold = config.getLong("slow-call-threshold", slowCallThreshold);
+            this.slowCallRateThreshold = config.getDouble("slow-call-rate-threshold", slowCallRateThreshold);
+            this.minimumCalls = config.getInt("minimum-calls", minimumCalls);
+            this.windowSize = config.getInt("window-size", windowSize);
+            this.openDuration = config.getLong("open-duration", openDuration);
+            this.halfOpenCalls = config.getInt("half-open-calls", halfOpenCalls);
+        }
+    }
+
     @Getter
     @Setter
     public static class MetricsConfig {
@@ -181,5 +250,23 @@ public class ServiceConfig {
                     parameters.put(key, paramsSection.get(key)));
             }
         }
+
+        public boolean isValidCondition() {
+            // setCondition(null) is allowed, so check before switching
+            if (condition == null) {
+                return false;
+            }
+            switch (condition) {
+                case ">":
+                case ">=":
+                case "<":
+                case "<=":
+                case "==":
+                case "!=":
+                    return true;
+                default:
+                    return false;
+            }
+        }
     }
 }
@@ -1,6 +1,9 @@
 package com.lov4craft.core.ai.ml;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.ai.base.MicroBatcher;
+import com.lov4craft.core.ai.config.ModelConfig;
+import com.lov4craft.core.util.ScoreMath;
 import lombok.Getter;
 import org.bukkit.entity.Player;
 import org.bukkit.Location;
@@ -9,11 +12,13 @@ import org.bukkit.inventory.ItemStack;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 public class MachineLearningService {
     private final LOV4CraftCore plugin;
     private final Map<String, MLModel> models;
+    private final Map<String, MicroBatcher<double[], double[]>> batchers;
     
     @Getter
     private final BehaviorPredictor behaviorPredictor;
@@ -30,41 +35,61 @@ public class MachineLearningService {
     public MachineLearningService(LOV4CraftCore plugin) {
         this.plugin = plugin;
         this.models = new ConcurrentHashMap<>();
+        this.batchers = new ConcurrentHashMap<>();
+        // Predictors pick up their model and batcher when constructed
+        initializeModels();
         this.behaviorPredictor = new BehaviorPredictor();
         this.economyOptimizer = new EconomyOptimizer();
         this.eventPredictor = new EventPredictor();
         this.recommendationEngine = new RecommendationEngine();
-        initializeModels();
     }
 
     private void initializeModels() {
         // Initialize different ML models
-        models.put("behavior", new MLModel(ModelType.RANDOM_FOREST, "behavior_v1"));
-        models.put("economy", new MLModel(ModelType.GRADIENT_BOOST, "economy_v1"));
-        models.put("event", new MLModel(ModelType.NEURAL_NET, "event_v1"));
-        models.put("recommendation", new MLModel(ModelType.COLLABORATIVE_FILTER, "recommendation_v1"));
+        registerModel("behavior", new MLModel(ModelType.RANDOM_FOREST, "behavior_v1"));
+        registerModel("economy", new MLModel(ModelType.GRADIENT_BOOST, "economy_v1"));
+        registerModel("event", new MLModel(ModelType.NEURAL_NET, "event_v1"));
+        registerModel("recommendation", new MLModel(ModelType.COLLABORATIVE_FILTER, "recommendation_v1"));
+    }
+
+    /**
+     * Predictions go through a batcher sized by models.<name>.inference in ai.yml.
+     */
+    private void registerModel(String name, MLModel model) {
+        ModelConfig.InferenceConfig inference = plugin.getAiConfig().getModelConfig(name).getInferenceConfig();
+        models.put(name, model);
+        batchers.put(name, new MicroBatcher<>("ml/" + name, model::predictBatch, inference.getMaxBatchSize(),
+            inference.getMaxBatchDelay(), inference.getMaxBatchSize() * 32, ForkJoinPool.commonPool()));
+    }
+
+    public void shutdown() {
+        batchers.values().forEach(MicroBatcher::shutdown);
+        batchers.clear();
+    }
+
+    public Collection<MicroBatcher<double[], double[]>> getBatchers() {
+        return Collections.unmodifiableCollection(batchers.values());
     }
 
     public class BehaviorPredictor {
         private final MLModel model;
+        private final MicroBatcher<double[], double[]> batcher;
         private final Map<UUID, List<BehaviorPattern>> patterns;
 
         public BehaviorPredictor() {
             this.model = models.get("behavior");
+            this.batcher = batchers.get("behavior");
             this.patterns = new ConcurrentHashMap<>();
         }
 
         public CompletableFuture<BehaviorPrediction> predictBehavior(Player player) {
-            return CompletableFuture.supplyAsync(() -> {
-                List<BehaviorPattern> playerPatterns = getPlayerPatterns(player);
-                double[] features = extractFeatures(playerPatterns);
-                double[] prediction = model.predict(features);
-                return new BehaviorPrediction(
+            return CompletableFuture.supplyAsync(() -> extractFeatures(getPlayerPatterns(player)))
+                .thenCompose(batcher::submit)
+                .thenApply(prediction -> new BehaviorPrediction(
                     interpretPrediction(prediction),
-                    calculateConfidence(prediction),
+                    ScoreMath.confidence(prediction),
                     generateRecommendations(prediction)
-                );
-            });
+                ));
         }
 
         private List<BehaviorPattern> getPlayerPatterns(Player player) {
@@ -87,24 +112,23 @@ public class MachineLearningService {
 
     public class EconomyOptimizer {
         private final MLModel model;
+        private final MicroBatcher<double[], double[]> batcher;
         private final Map<String, MarketData> marketHistory;
 
         public EconomyOptimizer() {
             this.model = models.get("economy");
+            this.batcher = batchers.get("economy");
             this.marketHistory = new ConcurrentHashMap<>();
         }
 
         public CompletableFuture<EconomyOptimization> optimizeEconomy() {
-            return CompletableFuture.supplyAsync(() -> {
-                MarketData currentData = getCurrentMarketData();
-                double[] features = extractMarketFeatures(currentData);
-                double[] optimization = model.predict(features);
-                return new EconomyOptimization(
+            return CompletableFuture.supplyAsync(() -> extractMarketFeatures(getCurrentMarketData()))
+                .thenCompose(batcher::submit)
+                .thenApply(optimization -> new EconomyOptimization(
                     interpretOptimization(optimization),
                     generateAdjustments(optimization),
                     predictImpact(optimization)
-                );
-            });
+                ));
         }
 
         private MarketData getCurrentMarketData() {
@@ -119,43 +143,41 @@ public class MachineLearningService {
 
     public class EventPredictor {
         private final MLModel model;
+        private final MicroBatcher<double[], double[]> batcher;
         private final Map<String, List<EventData>> eventHistory;
 
         public EventPredictor() {
             this.model = models.get("event");
+            this.batcher = batchers.get("event");
             this.eventHistory = new ConcurrentHashMap<>();
         }
 
         public CompletableFuture<EventPrediction> predictNextEvent(String eventType) {
-            return CompletableFuture.supplyAsync(() -> {
-                List<EventData> history = getEventHistory(eventType);
-                double[] features = extractEventFeatures(history);
-                double[] prediction = model.predict(features);
-                return new EventPrediction(
+            return CompletableFuture.supplyAsync(() -> extractEventFeatures(getEventHistory(eventType)))
+                .thenCompose(batcher::submit)
+                .thenApply(prediction -> new EventPrediction(
                     interpretEventPrediction(prediction),
                     calculateEventProbability(prediction),
                     suggestPreparations(prediction)
-                );
-            });
+                ));
         }
     }
 
     public class RecommendationEngine {
         private final MLModel model;
+        private final MicroBatcher<double[], double[]> batcher;
         private final Map<UUID, List<PlayerPreference>> preferences;
 
         public RecommendationEngine() {
             this.model = models.get("recommendation");
+            this.batcher = batchers.get("recommendation");
             this.preferences = new ConcurrentHashMap<>();
         }
 
         public CompletableFuture<List<Recommendation>> getRecommendations(Player player) {
-            return CompletableFuture.supplyAsync(() -> {
-                List<PlayerPreference> playerPrefs = getPlayerPreferences(player);
-                double[] features = extractPreferenceFeatures(playerPrefs);
-                double[] recommendations = model.predict(features);
-                return generateRecommendations(recommendations, player);
-            });
+            return CompletableFuture.supplyAsync(() -> extractPreferenceFeatures(getPlayerPreferences(player)))
+                .thenCompose(batcher::submit)
+                .thenApply(recommendations -> generateRecommendations(recommendations, player));
         }
     }
 
@@ -177,6 +199,17 @@ public class MachineLearningService {
             return new double[outputSize];
         }
 
+        /**
+         * Predicts a batch of feature vectors; results are in input order.
+         */
+        public List<double[]> predictBatch(List<double[]> features) {
+            List<double[]> predictions = new ArrayList<>(features.size());
+            for (double[] row : features) {
+                predictions.add(predict(row));
+            }
+            return predictions;
+        }
+
         public int getInputSize() {
             return inputSize;
         }
@@ -1,6 +1,8 @@
 package com.lov4craft.core.ai.neural;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.ai.base.MicroBatcher;
+import com.lov4craft.core.ai.config.ModelConfig;
 import lombok.Getter;
 import org.bukkit.entity.Player;
 import org.bukkit.Location;
@@ -9,12 +11,15 @@ import org.bukkit.block.Block;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 public class NeuralNetworkService {
     private final LOV4CraftCore plugin;
     private final Map<String, NeuralNetwork> networks;
     private final Map<UUID, PlayerBehaviorPattern> playerPatterns;
+    private final List<MicroBatcher<double[], double[]>> batchers;
     
     @Getter
     private final BuildingAnalyzer buildingAnalyzer;
@@ -29,13 +34,36 @@ public class NeuralNetworkService {
         this.plugin = plugin;
         this.networks = new ConcurrentHashMap<>();
         this.playerPatterns = new ConcurrentHashMap<>();
+        this.batchers = new CopyOnWriteArrayList<>();
         this.buildingAnalyzer = new BuildingAnalyzer();
         this.combatPredictor = new CombatPredictor();
         this.resourceOptimizer = new ResourceOptimizer();
     }
 
+    public void shutdown() {
+        batchers.forEach(MicroBatcher::shutdown);
+        batchers.clear();
+    }
+
+    public List<MicroBatcher<double[], double[]>> getBatchers() {
+        return Collections.unmodifiableList(batchers);
+    }
+
+    /**
+     * Batches forward passes of one network, sized by models.<name>.inference in ai.yml.
+     */
+    private MicroBatcher<double[], double[]> createBatcher(String name, NeuralNetwork network) {
+        ModelConfig.InferenceConfig inference = plugin.getAiConfig().getModelConfig(name).getInferenceConfig();
+        MicroBatcher<double[], double[]> batcher = new MicroBatcher<>("neural/" + name, network::forwardBatch,
+            inference.getMaxBatchSize(), inference.getMaxBatchDelay(), inference.getMaxBatchSize() * 32,
+            ForkJoinPool.commonPool());
+        batchers.add(batcher);
+        return batcher;
+    }
+
     public class BuildingAnalyzer {
         private final NeuralNetwork network;
+        private final MicroBatcher<double[], double[]> batcher;
         private final Map<UUID, List<BuildingPattern>> playerBuildings;
 
         public BuildingAnalyzer() {
@@ -43,16 +71,14 @@ public class NeuralNetworkService {
                 new int[]{100, 64, 32, 16},  // Layer sizes
                 ActivationFunction.RELU
             );
+            this.batcher = createBatcher("building", network);
             this.playerBuildings = new ConcurrentHashMap<>();
         }
 
         public CompletableFuture<BuildingAnalysis> analyzeStructure(Location start, Location end) {
-            return CompletableFuture.supplyAsync(() -> {
-                List<Block> blocks = getBlocksBetween(start, end);
-                double[] input = convertBlocksToInput(blocks);
-                double[] output = network.forward(input);
-                return interpretBuildingOutput(output, blocks);
-            });
+            return CompletableFuture.supplyAsync(() -> getBlocksBetween(start, end))
+                .thenCompose(blocks -> batcher.submit(convertBlocksToInput(blocks))
+                    .thenApply(output -> interpretBuildingOutput(output, blocks)));
         }
 
         private BuildingAnalysis interpretBuildingOutput(double[] output, List<Block> blocks) {
@@ -67,6 +93,7 @@ public class NeuralNetworkService {
 
     public class CombatPredictor {
         private final NeuralNetwork network;
+        private final MicroBatcher<double[], double[]> batcher;
         private final Map<UUID, List<CombatPattern>> combatHistory;
 
         public CombatPredictor() {
@@ -74,21 +101,20 @@ public class NeuralNetworkService {
                 new int[]{50, 32, 16, 8},
                 ActivationFunction.LEAKY_RELU
             );
+            this.batcher = createBatcher("combat", network);
             this.combatHistory = new ConcurrentHashMap<>();
         }
 
         public CompletableFuture<CombatPrediction> predictNextMove(Player player) {
-            return CompletableFuture.supplyAsync(() -> {
-                CombatPattern pattern = getCurrentCombatPattern(player);
-                double[] input = convertPatternToInput(pattern);
-                double[] output = network.forward(input);
-                return interpretCombatOutput(output, player);
-            });
+            return CompletableFuture.supplyAsync(() -> convertPatternToInput(getCurrentCombatPattern(player)))
+                .thenCompose(batcher::submit)
+                .thenApply(output -> interpretCombatOutput(output, player));
         }
     }
 
     public class ResourceOptimizer {
         private final NeuralNetwork network;
+        private final MicroBatcher<double[], double[]> batcher;
         private final Map<String, ResourceUsagePattern> resourcePatterns;
 
         public ResourceOptimizer() {
@@ -96,16 +122,14 @@ public class NeuralNetworkService {
                 new int[]{80, 40, 20, 10},
                 ActivationFunction.SIGMOID
             );
+            this.batcher = createBatcher("resource", network);
             this.resourcePatterns = new ConcurrentHashMap<>();
         }
 
         public CompletableFuture<ResourceOptimization> optimizeResourceUsage(String resourceType) {
-            return CompletableFuture.supplyAsync(() -> {
-                ResourceUsagePattern pattern = getCurrentUsagePattern(resourceType);
-                double[] input = convertUsageToInput(pattern);
-                double[] output = network.forward(input);
-                return interpretResourceOutput(output, resourceType);
-            });
+            return CompletableFuture.supplyAsync(() -> convertUsageToInput(getCurrentUsagePattern(resourceType)))
+                .thenCompose(batcher::submit)
+                .thenApply(output -> interpretResourceOutput(output, resourceType));
         }
     }
 
@@ -127,6 +151,18 @@ public class NeuralNetworkService {
             return new double[]{};  // Placeholder
         }
 
+        /**
+         * Forward pass over a batch; outputs are in input order.
+         */
+        public List<double[]> forwardBatch(List<double[]> inputs) {
+            // Per-row until the layers work on matrices
+            List<double[]> outputs = new ArrayList<>(inputs.size());
+            for (double[] input : inputs) {
+                outputs.add(forward(input));
+            }
+            return outputs;
+        }
+
         private List<Matrix> initializeWeights() {
             // Implementation of weight initialization
             return new ArrayList<>();  // Placeholder
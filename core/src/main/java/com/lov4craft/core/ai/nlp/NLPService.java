@@ -1,6 +1,7 @@
 package com.lov4craft.core.ai.nlp;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.util.ScoreMath;
 import lombok.Getter;
 import org.bukkit.entity.Player;
 
@@ -122,7 +123,7 @@ public class NLPService {
                 return new IntentClassification(
                     primaryIntent,
                     getSecondaryIntents(scores),
-                    calculateConfidence(scores),
+                    ScoreMath.confidence(scores),
                     suggestResponses(primaryIntent)
                 );
             });
@@ -0,0 +1,13 @@
+package com.lov4craft.core.cache;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+    /**
+     * Loads a value from the backing store. Runs on the database executor.
+     *
+     * @return the value, or null if it does not exist
+     */
+    V load(K key) throws SQLException;
+}
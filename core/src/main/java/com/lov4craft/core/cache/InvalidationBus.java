@@ -0,0 +1,401 @@
+package com.lov4craft.core.cache;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.redis.RedisManager;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cross-server cache invalidation over Redis pub/sub. Keys published within
+ * one flush interval are merged into a single message per node. Every
+ * message takes the next value of a shared generation counter; a node that
+ * sees a generation go missing, or that reconnects after the counter moved,
+ * cannot know what it missed and resets every registered cache instead.
+ *
+ * <p>Keys that fail to publish are kept for the next flush, up to max-pending.
+ * Past that they are dropped and the next message tells the other nodes to
+ * reset instead.
+ *
+ * <p>Message format: {@code nodeId|generation|namespace=key,key;namespace=key},
+ * or {@code nodeId|generation|*} to reset. Keys must not contain {@code | ; = ,}.
+ */
+public class InvalidationBus {
+    private final LOV4CraftCore plugin;
+    private final String nodeId;
+    private final String channel;
+    private final String generationKey;
+    private final long flushInterval;
+    private final long gapTimeout;
+    private final int maxPending;
+    private final Map<String, Handler> handlers;
+    private final ScheduledExecutorService executor;
+
+    // Keys waiting to be published, in publish order per namespace
+    private final Map<String, Set<String>> pending;
+
+    // Guarded by pending: keys were dropped, so the next message resets the other nodes
+    private boolean pendingLost;
+
+    // Generations that were skipped over; they may still arrive out of order
+    private final Map<Long, Long> missing;
+    private long lastGeneration = -1;
+
+    private volatile boolean running;
+    private volatile JedisPubSub subscription;
+    private Thread subscriber;
+
+    @Getter
+    private final LongAdder publishedCount;
+
+    @Getter
+    private final LongAdder receivedCount;
+
+    @Getter
+    private final LongAdder resetCount;
+
+    public InvalidationBus(LOV4CraftCore plugin, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.nodeId = UUID.randomUUID().toString().substring(0, 8);
+        FileConfiguration redisConfig = plugin.getConfigManager().getConfig("redis.yml");
+        this.channel = redisConfig.getString("redis.channels.sync", "lov4craft:sync");
+        this.generationKey = redisConfig.getString("redis.key-prefix", "lov4craft:") + "sync:generation";
+        this.flushInterval = Math.max(1, config != null ? config.getLong("flush-interval", 50) : 50);
+        this.gapTimeout = Math.max(100, config != null ? config.getLong("gap-timeout", 2000) : 2000);
+        this.maxPending = Math.max(1, config != null ? config.getInt("max-pending", 10000) : 10000);
+        this.handlers = new ConcurrentHashMap<>();
+        this.pending = new LinkedHashMap<>();
+        this.missing = new LinkedHashMap<>();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LOV4CRAFT-InvalidationBus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publishedCount = new LongAdder();
+        this.receivedCount = new LongAdder();
+        this.resetCount = new LongAdder();
+    }
+
+    public void start() {
+        running = true;
+        executor.scheduleWithFixedDelay(this::tick, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        subscriber = new Thread(this::subscribeLoop, "LOV4CRAFT-InvalidationSubscriber");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    /**
+     * Registers the local side of a namespace, replacing any previous handler.
+     *
+     * @param onKey   applies one key published by another node
+     * @param onReset drops everything, used when messages may have been missed
+     */
+    public void register(String namespace, Consumer<String> onKey, Runnable onReset) {
+        handlers.put(namespace, new Handler(onKey, onReset));
+    }
+
+    public void unregister(String namespace) {
+        handlers.remove(namespace);
+    }
+
+    /**
+     * Queues a key for the other nodes. Later publishes of the same key move
+     * it to the end, so the order of the last occurrences is preserved.
+     */
+    public void publish(String namespace, String key) {
+        synchronized (pending) {
+            Set<String> keys = pending.computeIfAbsent(namespace, ignored -> new LinkedHashSet<>());
+            keys.remove(key);
+            keys.add(key);
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+
+        JedisPubSub current = subscription;
+        if (current != null && current.isSubscribed()) {
+            try {
+                current.unsubscribe();
+            } catch (Exception ignored) {
+                // Connection already gone
+            }
+        }
+        if (subscriber != null) {
+            subscriber.interrupt();
+            subscriber = null;
+        }
+    }
+
+    private void tick() {
+        flush();
+        checkGaps();
+    }
+
+    private void flush() {
+        Map<String, Set<String>> batch;
+        boolean reset;
+        synchronized (pending) {
+            if (pending.isEmpty() && !pendingLost) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            reset = pendingLost;
+            pendingLost = false;
+        }
+
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            requeue(batch, reset);
+            return;
+        }
+
+        try {
+            redis.execute("PUBLISH", jedis -> {
+                long generation = jedis.incr(generationKey);
+                StringBuilder message = new StringBuilder(nodeId).append('|').append(generation).append('|');
+                if (reset) {
+                    // Covers the dropped keys and everything in this batch
+                    message.append('*');
+                } else {
+                    boolean first = true;
+                    for (Map.Entry<String, Set<String>> entry : batch.entrySet()) {
+                        if (!first) {
+                            message.append(';');
+                        }
+                        message.append(entry.getKey()).append('=').append(String.join(",", entry.getValue()));
+                        first = false;
+                    }
+                }
+                return jedis.publish(channel, message.toString());
+            });
+            publishedCount.increment();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to publish cache invalidations: " + e.getMessage());
+            requeue(batch, reset);
+        }
+    }
+
+    /**
+     * Puts an unpublished batch back in front of the keys queued since, or
+     * drops it and flags a reset once more than max-pending keys are held.
+     */
+    private void requeue(Map<String, Set<String>> batch, boolean reset) {
+        synchronized (pending) {
+            // Keys queued meanwhile are newer, so they keep their place after the failed ones
+            for (Map.Entry<String, Set<String>> entry : pending.entrySet()) {
+                Set<String> keys = batch.computeIfAbsent(entry.getKey(), ignored -> new LinkedHashSet<>());
+                for (String key : entry.getValue()) {
+                    keys.remove(key);
+                    keys.add(key);
+                }
+            }
+            pending.clear();
+
+            int size = 0;
+            for (Set<String> keys : batch.values()) {
+                size += keys.size();
+            }
+            if (reset || size > maxPending) {
+                if (!reset) {
+                    plugin.getLogger().warning("Dropped " + size + " unpublished cache invalidations, "
+                        + "other nodes will reset their caches once Redis is reachable");
+                }
+                pendingLost = true;
+            } else {
+                pending.putAll(batch);
+            }
+        }
+    }
+
+    private void handleMessage(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3) {
+            return;
+        }
+
+        long generation;
+        try {
+            generation = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        trackGeneration(generation);
+
+        if (parts[0].equals(nodeId) || parts[2].isEmpty()) {
+            return;
+        }
+        receivedCount.increment();
+
+        if (parts[2].equals("*")) {
+            resetAll("node " + parts[0] + " dropped invalidations");
+            return;
+        }
+
+        for (String group : parts[2].split(";")) {
+            int separator = group.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            Handler handler = handlers.get(group.substring(0, separator));
+            if (handler == null) {
+                continue;
+            }
+            for (String key : group.substring(separator + 1).split(",")) {
+                try {
+                    handler.onKey().accept(key);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to apply invalidation " + group.substring(0, separator)
+                        + "/" + key + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void trackGeneration(long generation) {
+        synchronized (missing) {
+            if (missing.remove(generation) != null || lastGeneration < 0) {
+                lastGeneration = Math.max(lastGeneration, generation);
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (long skipped = lastGeneration + 1; skipped < generation; skipped++) {
+                missing.put(skipped, now);
+            }
+            lastGeneration = Math.max(lastGeneration, generation);
+        }
+    }
+
+    private void checkGaps() {
+        boolean lost = false;
+        synchronized (missing) {
+            long cutoff = System.currentTimeMillis() - gapTimeout;
+            Iterator<Long> seenAt = missing.values().iterator();
+            while (seenAt.hasNext()) {
+                if (seenAt.next() < cutoff) {
+                    seenAt.remove();
+                    lost = true;
+                }
+            }
+        }
+        if (lost) {
+            resetAll("missed invalidation messages");
+        }
+    }
+
+    private void resetAll(String reason) {
+        plugin.getLogger().warning("Resetting local caches: " + reason);
+        resetCount.increment();
+        List<Handler> current = new ArrayList<>(handlers.values());
+        for (Handler handler : current) {
+            try {
+                handler.onReset().run();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to reset cache: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compares the shared generation with the last one seen, so a node that
+     * was disconnected notices anything published meanwhile.
+     */
+    private void syncGeneration(boolean reconnect) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return;
+        }
+        try {
+            String value = redis.execute("GET", jedis -> jedis.get(generationKey));
+            long current = value != null ? Long.parseLong(value) : 0;
+            boolean changed;
+            synchronized (missing) {
+                changed = reconnect && current != lastGeneration;
+                lastGeneration = current;
+                missing.clear();
+            }
+            if (changed) {
+                try {
+                    executor.execute(() -> resetAll("reconnected to Redis"));
+                } catch (RejectedExecutionException ignored) {
+                    // Shutting down
+                }
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to read invalidation generation: " + e.getMessage());
+        }
+    }
+
+    private void subscribeLoop() {
+        boolean reconnect = false;
+        while (running) {
+            JedisPool pool = plugin.getRedisPool();
+            if (pool != null && !pool.isClosed()) {
+                boolean resubscribed = reconnect;
+                JedisPubSub pubSub = new JedisPubSub() {
+                    @Override
+                    public void onSubscribe(String subscribedChannel, int subscribedChannels) {
+                        syncGeneration(resubscribed);
+                    }
+
+                    @Override
+                    public void onMessage(String messageChannel, String message) {
+                        // Applied off the subscriber thread so slow handlers never stall the socket
+                        try {
+                            executor.execute(() -> handleMessage(message));
+                        } catch (RejectedExecutionException ignored) {
+                            // Shutting down
+                        }
+                    }
+                };
+                subscription = pubSub;
+
+                try (Jedis jedis = pool.getResource()) {
+                    jedis.subscribe(pubSub, channel);
+                } catch (Exception e) {
+                    if (running) {
+                        plugin.getLogger().warning("Lost invalidation subscription: " + e.getMessage());
+                    }
+                }
+                reconnect = true;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(5000L);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private record Handler(Consumer<String> onKey, Runnable onReset) {}
+}
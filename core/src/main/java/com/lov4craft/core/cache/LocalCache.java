@@ -0,0 +1,103 @@
+package com.lov4craft.core.cache;
+
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded in-process LRU cache with per-entry expiry. The bound is a total
+ * weight, so a few large entries cannot crowd the heap the same way many
+ * small ones would. A null value is a cached "does not exist" result.
+ */
+public class LocalCache<K, V> {
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+    private long weight;
+
+    @Getter
+    private final LongAdder hits;
+
+    @Getter
+    private final LongAdder misses;
+
+    @Getter
+    private final LongAdder evictions;
+
+    public LocalCache(long maxWeight, ToIntFunction<V> weigher) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.maxWeight = Math.max(1, maxWeight);
+        this.weigher = weigher;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * @return the live entry, or null on a miss
+     */
+    public synchronized Entry<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt() <= System.currentTimeMillis()) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    public synchronized void put(K key, V value, long ttlMillis) {
+        int entryWeight = value != null ? Math.max(1, weigher.applyAsInt(value)) : 1;
+        Entry<V> previous = entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis, entryWeight));
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += entryWeight;
+
+        // Least recently used entries go first
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            weight -= eldest.getValue().weight();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    public record Entry<V>(V value, long expiresAt, int weight) {}
+}
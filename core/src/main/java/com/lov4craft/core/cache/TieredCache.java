@@ -0,0 +1,262 @@
+package com.lov4craft.core.cache;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.redis.RedisManager;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache with a local L1 in front of Redis as a shared L2.
+ * Values are stored in Redis as strings; the empty string marks a cached
+ * "does not exist" result, kept for the shorter negative TTL.
+ *
+ * <p>A load that raced with an invalidation must not be cached, or the old
+ * value would outlive the change by a full TTL. L1 checks a generation
+ * striped by key that invalidations bump; L2 keeps a version counter per key
+ * next to the value, and the write only goes through if the version is
+ * still the one read before loading.
+ */
+public class TieredCache<K, V> {
+    private static final String ABSENT = "";
+    private static final int GENERATION_STRIPES = 64;
+    /**
+     * SET with expiry if the version key still holds ARGV[1]. Short enough
+     * to send with EVAL, which keeps it in the shared pipeline and needs no
+     * NOSCRIPT handling.
+     */
+    private static final String WRITE_SCRIPT = """
+        if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then
+          return 0
+        end
+        redis.call('SET', KEYS[1], ARGV[3], 'EX', ARGV[2])
+        return 1
+        """;
+
+    private final LOV4CraftCore plugin;
+    @Getter
+    private final String name;
+    private final Executor executor;
+    private final CacheLoader<K, V> loader;
+    private final Function<V, String> encoder;
+    private final Function<String, V> decoder;
+    private final LocalCache<K, V> local;
+    private final long ttlSeconds;
+    private final long negativeTtlSeconds;
+    private final String keyPrefix;
+    private final String versionPrefix;
+
+    // Bumped by invalidations of keys in the stripe so a load that raced with one is not cached
+    private final AtomicLongArray generations;
+
+    @Getter
+    private final LongAdder remoteHits;
+
+    @Getter
+    private final LongAdder remoteMisses;
+
+    @Getter
+    private final LongAdder loads;
+
+    public TieredCache(LOV4CraftCore plugin, String name, ConfigurationSection config, Executor executor,
+                       CacheLoader<K, V> loader, Function<V, String> encoder, Function<String, V> decoder,
+                       Function<String, K> keyParser) {
+        this.plugin = plugin;
+        this.name = name;
+        this.executor = executor;
+        this.loader = loader;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.ttlSeconds = Math.max(1, config != null ? config.getLong("ttl-seconds", 300) : 300);
+        this.negativeTtlSeconds = Math.max(1, config != null ? config.getLong("negative-ttl-seconds", 30) : 30);
+        long maxWeight = (config != null ? config.getLong("local-max-size-kb", 4096) : 4096) * 1024L;
+        // Rough heap footprint: UTF-16 chars of the encoded form plus object overhead
+        this.local = new LocalCache<>(maxWeight, value -> encoder.apply(value).length() * 2 + 64);
+        String prefix = plugin.getConfigManager().getConfig("redis.yml").getString("redis.key-prefix", "lov4craft:");
+        this.keyPrefix = prefix + "cache:" + name + ":";
+        this.versionPrefix = prefix + "cache-version:" + name + ":";
+        this.generations = new AtomicLongArray(GENERATION_STRIPES);
+        this.remoteHits = new LongAdder();
+        this.remoteMisses = new LongAdder();
+        this.loads = new LongAdder();
+
+        // Other nodes tell us when they change an entry we may hold in L1
+        InvalidationBus bus = plugin.getInvalidationBus();
+        if (bus != null) {
+            bus.register("cache:" + name, key -> invalidateLocal(keyParser.apply(key)), this::invalidateAllLocal);
+        }
+    }
+
+    /**
+     * Returns the value from the first tier that has it, loading it from the
+     * database on a full miss. Never blocks the caller.
+     */
+    public CompletableFuture<Optional<V>> get(K key) {
+        LocalCache.Entry<V> entry = local.get(key);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(entry.value()));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> Optional.ofNullable(fetch(key)), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Local lookup only, safe for hot paths on the main thread.
+     *
+     * @return the cached value, or empty on a miss or cached absence
+     */
+    public Optional<V> getIfPresent(K key) {
+        LocalCache.Entry<V> entry = local.get(key);
+        return entry != null ? Optional.ofNullable(entry.value()) : Optional.empty();
+    }
+
+    /**
+     * Drops the key from both tiers here and from L1 on every other node.
+     * Performs a Redis call, so call it off the main thread.
+     */
+    public void invalidate(K key) {
+        invalidateLocal(key);
+
+        InvalidationBus bus = plugin.getInvalidationBus();
+        if (bus != null) {
+            bus.publish("cache:" + name, key.toString());
+        }
+
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return;
+        }
+        String redisKey = keyPrefix + key;
+        String versionKey = versionPrefix + key;
+        try {
+            redis.pipelined("DEL+INCR", pipeline -> {
+                pipeline.del(redisKey);
+                pipeline.incr(versionKey);
+                // Only has to outlive loads still in flight
+                pipeline.expire(versionKey, ttlSeconds);
+            });
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to invalidate " + name + " cache entry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the key from this node's L1 only.
+     */
+    public void invalidateLocal(K key) {
+        generations.incrementAndGet(stripe(key));
+        local.invalidate(key);
+    }
+
+    public void invalidateAllLocal() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        local.invalidateAll();
+    }
+
+    public LocalCache<K, V> getLocal() {
+        return local;
+    }
+
+    public String describe() {
+        return String.format("%s: local size=%d (%d KB) hits=%d misses=%d evictions=%d | redis hits=%d misses=%d | loads=%d",
+            name, local.size(), local.getWeight() / 1024, local.getHits().sum(), local.getMisses().sum(),
+            local.getEvictions().sum(), remoteHits.sum(), remoteMisses.sum(), loads.sum());
+    }
+
+    private V fetch(K key) {
+        int stripe = stripe(key);
+        long startGeneration = generations.get(stripe);
+        String redisKey = keyPrefix + key;
+        String versionKey = versionPrefix + key;
+
+        RemoteRead remote = readRemote(redisKey, versionKey);
+        if (remote != null && remote.value() != null) {
+            remoteHits.increment();
+            V value = ABSENT.equals(remote.value()) ? null : decoder.apply(remote.value());
+            storeLocal(key, value, stripe, startGeneration);
+            return value;
+        }
+        remoteMisses.increment();
+
+        V value;
+        try {
+            value = loader.load(key);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+        loads.increment();
+
+        if (remote != null) {
+            writeRemote(redisKey, versionKey, remote.version(), value);
+        }
+        storeLocal(key, value, stripe, startGeneration);
+        return value;
+    }
+
+    private void storeLocal(K key, V value, int stripe, long startGeneration) {
+        if (generations.get(stripe) == startGeneration) {
+            local.put(key, value, (value != null ? ttlSeconds : negativeTtlSeconds) * 1000L);
+        }
+    }
+
+    /**
+     * @return the cached value, null on a miss, with the version to write
+     *         under; null if Redis is unavailable
+     */
+    private RemoteRead readRemote(String redisKey, String versionKey) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return null;
+        }
+        try {
+            List<Object> replies = redis.pipelined("GET+GET", pipeline -> {
+                pipeline.get(redisKey);
+                pipeline.get(versionKey);
+            });
+            return new RemoteRead((String) replies.get(0), replies.get(1) != null ? (String) replies.get(1) : "");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void writeRemote(String redisKey, String versionKey, String version, V value) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return;
+        }
+        // Nobody waits on the write, so it rides along with the next shared pipeline
+        String encoded = value != null ? encoder.apply(value) : ABSENT;
+        long ttl = value != null ? ttlSeconds : negativeTtlSeconds;
+        List<String> keys = List.of(redisKey, versionKey);
+        List<String> args = List.of(version, Long.toString(ttl), encoded);
+        redis.batched(pipeline -> pipeline.eval(WRITE_SCRIPT, keys, args)).whenComplete((reply, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to cache " + name + " entry: " + error.getMessage());
+            }
+        });
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private record RemoteRead(String value, String version) {
+    }
+}
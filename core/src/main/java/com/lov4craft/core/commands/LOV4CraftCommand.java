@@ -1,6 +1,12 @@
 package com.lov4craft.core.commands;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.cache.InvalidationBus;
+import com.lov4craft.core.cache.TieredCache;
+import com.lov4craft.core.database.DatabaseManager;
+import com.lov4craft.core.database.MissionProgressLog;
+import com.lov4craft.core.database.PoolMetrics;
+import com.lov4craft.core.redis.RedisManager;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -39,6 +45,13 @@ public class LOV4CraftCommand implements CommandExecutor, TabCompleter {
             case "version":
                 sender.sendMessage(ChatColor.GOLD + "LOV4CRAFT Version: " + plugin.getDescription().getVersion());
                 break;
+            case "stats":
+                if (!sender.hasPermission("lov4craft.admin")) {
+                    sender.sendMessage(ChatColor.RED + "You don't have permission to use this command!");
+                    return true;
+                }
+                showStats(sender);
+                break;
             default:
                 sender.sendMessage(ChatColor.RED + "Unknown command. Type /lov4craft help for help.");
                 break;
@@ -47,11 +60,46 @@ public class LOV4CraftCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private void showStats(CommandSender sender) {
+        DatabaseManager databaseManager = plugin.getDatabaseManager();
+        sender.sendMessage(ChatColor.GOLD + "=== LOV4CRAFT Stats ===");
+        for (PoolMetrics metrics : new PoolMetrics[]{databaseManager.getPrimaryMetrics(), databaseManager.getReplicaMetrics()}) {
+            if (metrics != null) {
+                sender.sendMessage(ChatColor.YELLOW + "Pool " + ChatColor.WHITE + metrics.describe());
+            }
+        }
+        for (TieredCache<?, ?> cache : new TieredCache<?, ?>[]{databaseManager.getPlayerRepository().getCache(),
+                databaseManager.getCoupleRepository().getCache()}) {
+            if (cache != null) {
+                sender.sendMessage(ChatColor.YELLOW + "Cache " + ChatColor.WHITE + cache.describe());
+            }
+        }
+        RedisManager redis = plugin.getRedisManager();
+        if (redis != null) {
+            for (String line : redis.describe().split("\n")) {
+                sender.sendMessage(ChatColor.YELLOW + "Redis " + ChatColor.WHITE + line);
+            }
+        }
+        InvalidationBus bus = plugin.getInvalidationBus();
+        if (bus != null) {
+            sender.sendMessage(ChatColor.YELLOW + "Invalidation " + ChatColor.WHITE + String.format("published=%d received=%d resets=%d",
+                bus.getPublishedCount().sum(), bus.getReceivedCount().sum(), bus.getResetCount().sum()));
+        }
+        MissionProgressLog progressLog = databaseManager.getMissionProgressLog();
+        if (progressLog != null) {
+            sender.sendMessage(ChatColor.YELLOW + "Mission progress " + ChatColor.WHITE + String.format(
+                "appended=%d folded=%d rows written=%d fallback=%d buffered=%d",
+                progressLog.getAppendedCount().sum(), progressLog.getFoldedCount().sum(),
+                progressLog.getWrittenCount().sum(), progressLog.getFallbackCount().sum(), progressLog.getBufferedCount()));
+        }
+    }
+
     private void showHelp(CommandSender sender) {
         sender.sendMessage(ChatColor.GOLD + "=== LOV4CRAFT Commands ===");
         sender.sendMessage(ChatColor.YELLOW + "/lov4craft help " + ChatColor.WHITE + "- Show this help message");
         if (sender.hasPermission("lov4craft.admin")) {
             sender.sendMessage(ChatColor.YELLOW + "/lov4craft reload " + ChatColor.WHITE + "- Reload the plugin configuration");
+            sender.sendMessage(ChatColor.YELLOW + "/lov4craft stats " + ChatColor.WHITE + "- Show connection pool and cache statistics");
         }
         sender.sendMessage(ChatColor.YELLOW + "/lov4craft version " + ChatColor.WHITE + "- Show plugin version");
     }
@@ -65,6 +113,7 @@ public class LOV4CraftCommand implements CommandExecutor, TabCompleter {
             completions.add("version");
             if (sender.hasPermission("lov4craft.admin")) {
                 completions.add("reload");
+                completions.add("stats");
             }
             return filterCompletions(completions, args[0]);
         }
@@ -1,6 +1,10 @@
 package com.lov4craft.core.commands;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.database.DatabaseManager;
+import com.lov4craft.core.database.HistoryCursor;
+import com.lov4craft.core.database.HistoryEntry;
+import com.lov4craft.core.database.HistoryPage;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -8,11 +12,18 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class WalletCommand implements CommandExecutor, TabCompleter {
+    private static final int HISTORY_PAGE_SIZE = 10;
+
     private final LOV4CraftCore plugin;
     private final List<String> subCommands = Arrays.asList("link", "balance", "withdraw", "history");
 
@@ -45,9 +56,7 @@ public class WalletCommand implements CommandExecutor, TabCompleter {
                 player.sendMessage(ChatColor.YELLOW + "Wallet linking system coming soon!");
                 break;
             case "balance":
-                // TODO: Implement balance check logic
-                player.sendMessage(ChatColor.GOLD + "=== Wallet Balance ===");
-                player.sendMessage(ChatColor.YELLOW + "Balance check system coming soon!");
+                showBalance(player);
                 break;
             case "withdraw":
                 if (args.length < 2) {
@@ -58,9 +67,7 @@ public class WalletCommand implements CommandExecutor, TabCompleter {
                 player.sendMessage(ChatColor.YELLOW + "Withdrawal system coming soon!");
                 break;
             case "history":
-                // TODO: Implement transaction history logic
-                player.sendMessage(ChatColor.GOLD + "=== Transaction History ===");
-                player.sendMessage(ChatColor.YELLOW + "Transaction history system coming soon!");
+                showHistory(player, args.length > 1 ? args[1] : null);
                 break;
             default:
                 showHelp(player);
@@ -70,6 +77,80 @@ public class WalletCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private void showBalance(Player player) {
+        DatabaseManager database = plugin.getDatabaseManager();
+        database.getPlayerIdResolver().resolve(player.getUniqueId())
+            .thenCompose(playerId -> playerId == 0
+                ? CompletableFuture.completedFuture(Map.<String, BigDecimal>of())
+                : database.getTransactionRepository().getBalances(playerId))
+            .whenCompleteAsync((balances, error) -> {
+                if (!player.isOnline()) {
+                    return;
+                }
+                if (error != null) {
+                    plugin.getLogger().warning("Failed to load wallet balance: " + error.getMessage());
+                    player.sendMessage(ChatColor.RED + "Could not load your balance, please try again later.");
+                    return;
+                }
+
+                player.sendMessage(ChatColor.GOLD + "=== Wallet Balance ===");
+                if (balances.isEmpty()) {
+                    player.sendMessage(ChatColor.YELLOW + "You have no balance yet.");
+                    return;
+                }
+                balances.forEach((currency, balance) -> player.sendMessage(ChatColor.YELLOW + currency + ": "
+                    + ChatColor.WHITE + balance.stripTrailingZeros().toPlainString()));
+            }, plugin.getMainThreadExecutor());
+    }
+
+    private void showHistory(Player player, String cursorToken) {
+        HistoryCursor cursor;
+        try {
+            cursor = cursorToken != null ? HistoryCursor.decode(cursorToken) : null;
+        } catch (IllegalArgumentException e) {
+            player.sendMessage(ChatColor.RED + "Invalid history page token.");
+            return;
+        }
+
+        DatabaseManager database = plugin.getDatabaseManager();
+        database.getPlayerIdResolver().resolve(player.getUniqueId())
+            .thenCompose(playerId -> playerId == 0
+                ? CompletableFuture.completedFuture(new HistoryPage(List.of(), null))
+                : database.getTransactionRepository().fetchHistory(playerId, cursor, HISTORY_PAGE_SIZE))
+            .whenCompleteAsync((page, error) -> {
+                if (!player.isOnline()) {
+                    return;
+                }
+                if (error != null) {
+                    plugin.getLogger().warning("Failed to load transaction history: " + error.getMessage());
+                    player.sendMessage(ChatColor.RED + "Could not load your transaction history, please try again later.");
+                    return;
+                }
+                sendHistoryPage(player, page);
+            }, plugin.getMainThreadExecutor());
+    }
+
+    private void sendHistoryPage(Player player, HistoryPage page) {
+        player.sendMessage(ChatColor.GOLD + "=== Transaction History ===");
+        if (page.entries().isEmpty()) {
+            player.sendMessage(ChatColor.YELLOW + "No transactions found.");
+            return;
+        }
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        for (HistoryEntry entry : page.entries()) {
+            player.sendMessage(ChatColor.GRAY + dateFormat.format(new Date(entry.createdAt())) + " "
+                + ChatColor.YELLOW + entry.type().getSqlValue() + " "
+                + ChatColor.WHITE + entry.amount().stripTrailingZeros().toPlainString() + " " + entry.currency() + " "
+                + ChatColor.GRAY + "(" + entry.status().getSqlValue() + ")");
+        }
+
+        if (page.hasMore()) {
+            player.sendMessage(ChatColor.YELLOW + "Next page: " + ChatColor.WHITE
+                + "/wallet history " + page.nextCursor().encode());
+        }
+    }
+
     private void showHelp(Player player) {
         player.sendMessage(ChatColor.GOLD + "=== Wallet Commands ===");
         player.sendMessage(ChatColor.YELLOW + "/wallet link " + ChatColor.WHITE + "- Link your crypto wallet");
@@ -0,0 +1,262 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.redis.RedisManager;
+import org.bukkit.configuration.ConfigurationSection;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Maintains player_balances alongside the transactions ledger and serves
+ * balance reads from a single primary-key range, cached in Redis.
+ *
+ * <p>Each cached player has a version key that {@link #invalidate} bumps. A
+ * read notes the version before it queries the database and only caches its
+ * result if the version is still the same, so a read that raced with a write
+ * cannot put the old balance back for the whole cache TTL.
+ */
+public class BalanceLedger {
+    private static final String UPSERT_SQL = """
+        INSERT INTO player_balances (player_id, currency, balance) VALUES (?, ?, ?)
+        ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)
+        """;
+    private static final String SELECT_SQL = "SELECT currency, balance FROM player_balances WHERE player_id = ?";
+    /**
+     * Replaces the cached hash if the version key still holds ARGV[1].
+     * ARGV[2] is the TTL, the rest are field/value pairs.
+     */
+    private static final String WRITE_SCRIPT = """
+        if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then
+          return 0
+        end
+        redis.call('DEL', KEYS[1])
+        redis.call('HSET', KEYS[1], unpack(ARGV, 3))
+        redis.call('EXPIRE', KEYS[1], ARGV[2])
+        return 1
+        """;
+
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final int cacheTtl;
+    private volatile String writeScriptSha;
+
+    public BalanceLedger(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.cacheTtl = config != null ? config.getInt("cache-ttl", 300) : 300;
+    }
+
+    /**
+     * Adds the balance effect of the given rows inside the caller's transaction.
+     * Deltas are summed per (player, currency) and applied in key order so
+     * concurrent writers always lock balance rows in the same sequence.
+     *
+     * @return ids of players whose balance changed
+     */
+    public Set<Long> applyDeltas(Connection conn, Collection<TransactionRecord> records) throws SQLException {
+        return upsertDeltas(conn, records, false);
+    }
+
+    /**
+     * Takes back the balance effect of the given rows, e.g. when a pending
+     * payout turns out to have failed. Same locking order as {@link #applyDeltas}.
+     *
+     * @return ids of players whose balance changed
+     */
+    public Set<Long> revertDeltas(Connection conn, Collection<TransactionRecord> records) throws SQLException {
+        return upsertDeltas(conn, records, true);
+    }
+
+    private Set<Long> upsertDeltas(Connection conn, Collection<TransactionRecord> records, boolean negate) throws SQLException {
+        TreeMap<BalanceKey, BigDecimal> deltas = new TreeMap<>();
+        for (TransactionRecord record : records) {
+            BigDecimal delta = negate ? record.balanceDelta().negate() : record.balanceDelta();
+            if (delta.signum() != 0) {
+                deltas.merge(new BalanceKey(record.playerId(), record.currency()), delta, BigDecimal::add);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<Long> playerIds = new HashSet<>();
+        try (PreparedStatement statement = conn.prepareStatement(UPSERT_SQL)) {
+            for (Map.Entry<BalanceKey, BigDecimal> entry : deltas.entrySet()) {
+                statement.setLong(1, entry.getKey().playerId());
+                statement.setString(2, entry.getKey().currency());
+                statement.setBigDecimal(3, entry.getValue());
+                statement.addBatch();
+                playerIds.add(entry.getKey().playerId());
+            }
+            statement.executeBatch();
+        }
+        return playerIds;
+    }
+
+    /**
+     * Returns all balances of a player keyed by currency.
+     */
+    public CompletableFuture<Map<String, BigDecimal>> getBalances(long playerId) {
+        return databaseManager.supplyAsync(() -> {
+            CacheRead cached = readCache(playerId);
+            if (cached != null && cached.balances() != null) {
+                return cached.balances();
+            }
+
+            try {
+                Map<String, BigDecimal> balances = queryBalances(playerId);
+                if (cached != null) {
+                    writeCache(playerId, balances, cached.version());
+                }
+                return balances;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    public void invalidate(Collection<Long> playerIds) {
+        RedisManager redis = plugin.getRedisManager();
+        if (playerIds.isEmpty() || redis == null || !redis.isAvailable()) {
+            return;
+        }
+
+        try {
+            redis.pipelined("DEL+INCR", pipeline -> {
+                for (long playerId : playerIds) {
+                    String key = cacheKey(playerId);
+                    pipeline.del(key);
+                    // Outlives any read still in flight, which is all it guards against
+                    pipeline.incr(versionKey(key));
+                    pipeline.expire(versionKey(key), cacheTtl);
+                }
+            });
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to invalidate cached balances: " + e.getMessage());
+        }
+    }
+
+    private Map<String, BigDecimal> queryBalances(long playerId) throws SQLException {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(SELECT_SQL)) {
+            statement.setLong(1, playerId);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(rs.getString(1), rs.getBigDecimal(2));
+                }
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * @return cached balances, or null balances with the version to cache
+     *         under; null if Redis is unavailable
+     */
+    @SuppressWarnings("unchecked")
+    private CacheRead readCache(long playerId) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return null;
+        }
+
+        String key = cacheKey(playerId);
+        try {
+            List<Object> results = redis.pipelined("HGETALL+GET", pipeline -> {
+                pipeline.hgetAll(key);
+                pipeline.get(versionKey(key));
+            });
+            Map<String, String> values = (Map<String, String>) results.get(0);
+            String version = results.get(1) != null ? (String) results.get(1) : "";
+            if (values.isEmpty()) {
+                return new CacheRead(null, version);
+            }
+            Map<String, BigDecimal> balances = new HashMap<>();
+            values.forEach((currency, balance) -> {
+                // Placeholder field marks a cached "no balances" result
+                if (!currency.isEmpty()) {
+                    balances.put(currency, new BigDecimal(balance));
+                }
+            });
+            return new CacheRead(balances, version);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void writeCache(long playerId, Map<String, BigDecimal> balances, String version) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return;
+        }
+
+        String key = cacheKey(playerId);
+        List<String> keys = List.of(key, versionKey(key));
+        List<String> args = new ArrayList<>(2 + balances.size() * 2);
+        args.add(version);
+        args.add(Integer.toString(cacheTtl));
+        balances.forEach((currency, balance) -> {
+            args.add(currency);
+            args.add(balance.toPlainString());
+        });
+        if (balances.isEmpty()) {
+            args.add("");
+            args.add("0");
+        }
+
+        try {
+            // Skipped by the script if an invalidation landed after readCache
+            redis.execute("EVALSHA", jedis -> {
+                String sha = writeScriptSha;
+                if (sha == null) {
+                    sha = writeScriptSha = jedis.scriptLoad(WRITE_SCRIPT);
+                }
+                try {
+                    return jedis.evalsha(sha, keys, args);
+                } catch (JedisNoScriptException e) {
+                    // Script cache was flushed, e.g. after a Redis restart
+                    writeScriptSha = jedis.scriptLoad(WRITE_SCRIPT);
+                    return jedis.evalsha(writeScriptSha, keys, args);
+                }
+            });
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to cache balances: " + e.getMessage());
+        }
+    }
+
+    private String cacheKey(long playerId) {
+        String prefix = plugin.getConfigManager().getConfig("redis.yml").getString("redis.key-prefix", "lov4craft:");
+        return prefix + "balance:" + playerId;
+    }
+
+    private static String versionKey(String cacheKey) {
+        return cacheKey + ":v";
+    }
+
+    private record CacheRead(Map<String, BigDecimal> balances, String version) {
+    }
+
+    private record BalanceKey(long playerId, String currency) implements Comparable<BalanceKey> {
+        @Override
+        public int compareTo(BalanceKey other) {
+            int result = Long.compare(playerId, other.playerId);
+            return result != 0 ? result : currency.compareTo(other.currency);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.LOV4CraftCore;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reconciles player_balances against the raw transactions ledger, one range
+ * of player ids at a time. Both sides of a chunk are read in a single
+ * REPEATABLE READ transaction so they come from the same snapshot;
+ * corrections are applied as deltas so they stay correct if new rows are
+ * written meanwhile.
+ */
+public class BalanceVerifier {
+    private static final String LEDGER_SQL = """
+        SELECT player_id, currency, SUM(CASE WHEN type = 'reward' THEN amount ELSE -amount END)
+        FROM transactions
+        WHERE player_id >= ? AND player_id < ? AND status <> 'failed'
+        GROUP BY player_id, currency
+        """;
+    private static final String BALANCES_SQL =
+        "SELECT player_id, currency, balance FROM player_balances WHERE player_id >= ? AND player_id < ?";
+    private static final String REPAIR_SQL = """
+        INSERT INTO player_balances (player_id, currency, balance) VALUES (?, ?, ?)
+        ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)
+        """;
+
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final AtomicBoolean running;
+    private final int chunkSize;
+    private final boolean autoRepair;
+
+    public BalanceVerifier(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.running = new AtomicBoolean(false);
+        this.chunkSize = Math.max(1, config != null ? config.getInt("verify-chunk-size", 1000) : 1000);
+        this.autoRepair = config == null || config.getBoolean("auto-repair", true);
+    }
+
+    /**
+     * Runs one full verification pass. Skipped if a pass is already running.
+     */
+    public void verify() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            long[] range = findPlayerRange();
+            int mismatches = 0;
+            for (long low = range[0]; low <= range[1]; low += chunkSize) {
+                mismatches += verifyChunk(low, low + chunkSize);
+            }
+
+            if (mismatches > 0) {
+                plugin.getLogger().warning(String.format("Balance verification found %d mismatch(es) in %d ms%s",
+                    mismatches, System.currentTimeMillis() - start, autoRepair ? ", repaired" : ""));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Balance verification failed: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long[] findPlayerRange() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MIN(id), MAX(id) FROM players")) {
+            if (rs.next() && rs.getObject(1) != null) {
+                return new long[]{rs.getLong(1), rs.getLong(2)};
+            }
+        }
+        return new long[]{1, 0};
+    }
+
+    private int verifyChunk(long low, long high) throws SQLException {
+        try (Connection conn = databaseManager.getConnection()) {
+            // Both sums must come from one snapshot, or a batch committed in between reads as drift
+            int isolation = conn.getTransactionIsolation();
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            try {
+                Map<String, BigDecimal> expected = sumByKey(conn, LEDGER_SQL, low, high);
+                Map<String, BigDecimal> actual = sumByKey(conn, BALANCES_SQL, low, high);
+
+                List<String> mismatched = new ArrayList<>();
+                Set<String> keys = new HashSet<>(expected.keySet());
+                keys.addAll(actual.keySet());
+                for (String key : keys) {
+                    BigDecimal want = expected.getOrDefault(key, BigDecimal.ZERO);
+                    BigDecimal have = actual.getOrDefault(key, BigDecimal.ZERO);
+                    if (want.compareTo(have) != 0) {
+                        mismatched.add(key);
+                        plugin.getLogger().warning("Balance mismatch for " + key + ": ledger " + want.toPlainString()
+                            + ", balance " + have.toPlainString());
+                    }
+                }
+
+                Set<Long> repaired = Set.of();
+                if (autoRepair && !mismatched.isEmpty()) {
+                    repaired = repair(conn, mismatched, expected, actual);
+                }
+                conn.commit();
+                databaseManager.getBalanceLedger().invalidate(repaired);
+                return mismatched.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setTransactionIsolation(isolation);
+            }
+        }
+    }
+
+    private Set<Long> repair(Connection conn, List<String> keys, Map<String, BigDecimal> expected,
+                             Map<String, BigDecimal> actual) throws SQLException {
+        Set<Long> playerIds = new HashSet<>();
+        try (PreparedStatement statement = conn.prepareStatement(REPAIR_SQL)) {
+            for (String key : keys) {
+                int separator = key.indexOf(':');
+                long playerId = Long.parseLong(key.substring(0, separator));
+                BigDecimal delta = expected.getOrDefault(key, BigDecimal.ZERO)
+                    .subtract(actual.getOrDefault(key, BigDecimal.ZERO));
+                statement.setLong(1, playerId);
+                statement.setString(2, key.substring(separator + 1));
+                statement.setBigDecimal(3, delta);
+                statement.addBatch();
+                playerIds.add(playerId);
+            }
+            statement.executeBatch();
+        }
+        return playerIds;
+    }
+
+    private Map<String, BigDecimal> sumByKey(Connection conn, String sql, long low, long high) throws SQLException {
+        Map<String, BigDecimal> sums = new HashMap<>();
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setLong(1, low);
+            statement.setLong(2, high);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    sums.put(rs.getLong(1) + ":" + rs.getString(2), rs.getBigDecimal(3));
+                }
+            }
+        }
+        return sums;
+    }
+}
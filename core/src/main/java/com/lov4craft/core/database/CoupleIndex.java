@@ -0,0 +1,190 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.cache.InvalidationBus;
+import com.lov4craft.core.util.LongLongMap;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory partner index for active couples. Both directions are stored so
+ * {@link #getPartner} is a single allocation-free probe. Changes made on this
+ * node are sent to the other nodes over the {@link InvalidationBus}; a node
+ * that may have missed some reloads from the database.
+ */
+public class CoupleIndex {
+    private static final String NAMESPACE = "couple-index";
+    private static final String SELECT_ACTIVE_SQL = "SELECT player1_id, player2_id FROM couples WHERE status = 'active'";
+
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final int initialCapacity;
+
+    private volatile LongLongMap partners;
+
+    // Held for a whole reload, so two reloads never share pendingChanges
+    private final Object reloadLock = new Object();
+
+    // Changes made while a reload is in progress, replayed onto the new map; guarded by this
+    private List<long[]> pendingChanges;
+
+    public CoupleIndex(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.initialCapacity = config != null ? config.getInt("initial-capacity", 1024) : 1024;
+        this.partners = new LongLongMap(initialCapacity);
+    }
+
+    /**
+     * Loads the index and starts applying changes made by other nodes.
+     */
+    public void start() throws SQLException {
+        InvalidationBus bus = plugin.getInvalidationBus();
+        if (bus != null) {
+            // Registered before loading so nothing published during the load is lost
+            bus.register(NAMESPACE, this::handleChange, this::reloadQuietly);
+        }
+        reload();
+    }
+
+    /**
+     * @return the partner's player id, or 0 if the player is not in an active couple
+     */
+    public long getPartner(long playerId) {
+        return partners.get(playerId);
+    }
+
+    public boolean hasPartner(long playerId) {
+        return partners.get(playerId) != 0;
+    }
+
+    public int getCoupleCount() {
+        return partners.size() / 2;
+    }
+
+    /**
+     * Records a newly active couple. Call after the status change is committed.
+     */
+    public void link(long player1Id, long player2Id) {
+        apply(player1Id, player2Id, true);
+        publish('+', player1Id, player2Id);
+    }
+
+    /**
+     * Removes a couple. Call after the status change is committed.
+     */
+    public void unlink(long player1Id, long player2Id) {
+        apply(player1Id, player2Id, false);
+        publish('-', player1Id, player2Id);
+    }
+
+    /**
+     * Rebuilds the index from the couples table without blocking readers.
+     * Concurrent reloads run one after the other.
+     */
+    public void reload() throws SQLException {
+        synchronized (reloadLock) {
+            reloadSerially();
+        }
+    }
+
+    private void reloadSerially() throws SQLException {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+
+        LongLongMap loaded = new LongLongMap(Math.max(initialCapacity, partners.size()));
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(SELECT_ACTIVE_SQL)) {
+            statement.setFetchSize(1000);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    long player1Id = rs.getLong(1);
+                    long player2Id = rs.getLong(2);
+                    loaded.put(player1Id, player2Id);
+                    loaded.put(player2Id, player1Id);
+                }
+            }
+        } catch (SQLException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (long[] change : pendingChanges) {
+                applyTo(loaded, change[0], change[1], change[2] != 0);
+            }
+            pendingChanges = null;
+            partners = loaded;
+        }
+    }
+
+    public void shutdown() {
+        InvalidationBus bus = plugin.getInvalidationBus();
+        if (bus != null) {
+            bus.unregister(NAMESPACE);
+        }
+    }
+
+    private synchronized void apply(long player1Id, long player2Id, boolean linked) {
+        applyTo(partners, player1Id, player2Id, linked);
+        if (pendingChanges != null) {
+            pendingChanges.add(new long[]{player1Id, player2Id, linked ? 1 : 0});
+        }
+    }
+
+    private static void applyTo(LongLongMap map, long player1Id, long player2Id, boolean linked) {
+        if (linked) {
+            map.put(player1Id, player2Id);
+            map.put(player2Id, player1Id);
+        } else {
+            // Only drop entries that still point at each other
+            if (map.get(player1Id) == player2Id) {
+                map.remove(player1Id);
+            }
+            if (map.get(player2Id) == player1Id) {
+                map.remove(player2Id);
+            }
+        }
+    }
+
+    private void publish(char action, long player1Id, long player2Id) {
+        InvalidationBus bus = plugin.getInvalidationBus();
+        if (bus != null) {
+            bus.publish(NAMESPACE, action + Long.toString(player1Id) + "-" + player2Id);
+        }
+    }
+
+    private void handleChange(String change) {
+        // Skip the action character, which is itself '-' for unlinks
+        int separator = change.indexOf('-', 1);
+        if (change.length() < 4 || separator <= 1 || (change.charAt(0) != '+' && change.charAt(0) != '-')) {
+            plugin.getLogger().warning("Malformed couple change: " + change);
+            return;
+        }
+
+        try {
+            long player1Id = Long.parseLong(change.substring(1, separator));
+            long player2Id = Long.parseLong(change.substring(separator + 1));
+            apply(player1Id, player2Id, change.charAt(0) == '+');
+        } catch (NumberFormatException e) {
+            plugin.getLogger().warning("Malformed couple change: " + change);
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to reload couple index: " + e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,95 @@
 package com.lov4craft.core.database;
 
 import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.database.migration.SchemaMigrator;
+import com.lov4craft.core.database.repository.CoupleRepository;
+import com.lov4craft.core.database.repository.MissionRepository;
+import com.lov4craft.core.database.repository.PlayerRepository;
+import com.lov4craft.core.database.repository.TransactionRepository;
+import com.lov4craft.core.leaderboard.LeaderboardService;
+import com.lov4craft.core.util.BoundedExecutor;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 
 public class DatabaseManager {
     private final LOV4CraftCore plugin;
+
+    @Getter
+    private SqlDialect dialect;
+
     private HikariDataSource dataSource;
+    private HikariDataSource replicaDataSource;
+
+    @Getter
+    private PoolMetrics primaryMetrics;
+
+    @Getter
+    private PoolMetrics replicaMetrics;
+
+    private BukkitTask sweepTask;
+    private BukkitTask verifyTask;
+    private BukkitTask reconcileTask;
+    private BukkitTask missionProgressTask;
+
+    @Getter
+    private ExecutorService executor;
+
+    @Getter
+    private BalanceLedger balanceLedger;
+
+    @Getter
+    private TransactionWriter transactionWriter;
+
+    @Getter
+    private PlayerIdResolver playerIdResolver;
+
+    @Getter
+    private TransactionHistory transactionHistory;
+
+    @Getter
+    private CoupleIndex coupleIndex;
+
+    @Getter
+    private TransactionReconciler transactionReconciler;
+
+    @Getter
+    private MissionProgressLog missionProgressLog;
+
+    @Getter
+    private LeaderboardService leaderboardService;
+
+    @Getter
+    private PlayerRepository playerRepository;
+
+    @Getter
+    private CoupleRepository coupleRepository;
+
+    @Getter
+    private TransactionRepository transactionRepository;
+
+    @Getter
+    private MissionRepository missionRepository;
+
+    private final AtomicLong lastMainThreadWarning = new AtomicLong();
+    private volatile boolean started;
 
     public DatabaseManager(LOV4CraftCore plugin) {
         this.plugin = plugin;
@@ -19,28 +98,60 @@ public class DatabaseManager {
     public void initialize() {
         FileConfiguration config = plugin.getConfigManager().getConfig("database.yml");
         
-        HikariConfig hikariConfig = new HikariConfig();
-        hikariConfig.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s",
-                config.getString("database.host", "localhost"),
-                config.getInt("database.port", 3306),
-                config.getString("database.name", "lov4craft")));
-        hikariConfig.setUsername(config.getString("database.username", "root"));
-        hikariConfig.setPassword(config.getString("database.password", ""));
-        
-        // HikariCP settings
-        hikariConfig.setMaximumPoolSize(10);
-        hikariConfig.setMinimumIdle(2);
-        hikariConfig.setIdleTimeout(300000);
-        hikariConfig.setConnectionTimeout(10000);
-        hikariConfig.setMaxLifetime(600000);
-        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
-        hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
-        hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
-        
         try {
-            dataSource = new HikariDataSource(hikariConfig);
-            createTables();
+            dialect = SqlDialect.fromConfig(config.getString("database.type", "mysql"));
+            primaryMetrics = new PoolMetrics("primary");
+            dataSource = createDataSource("LOV4CRAFT-Primary", config.getConfigurationSection("database"),
+                primaryMetrics, false);
+
+            // Optional read-only replica for read-heavy queries
+            if (config.getBoolean("database.replica.enabled", false) && dialect.isEmbedded()) {
+                plugin.getLogger().warning("Read replicas are not supported by the embedded database, ignoring database.replica");
+            } else if (config.getBoolean("database.replica.enabled", false)) {
+                replicaMetrics = new PoolMetrics("replica");
+                replicaDataSource = createDataSource("LOV4CRAFT-Replica", config.getConfigurationSection("database.replica"),
+                    replicaMetrics, true);
+            }
+
+            migrateSchema(config);
+
+            balanceLedger = new BalanceLedger(plugin, this, config.getConfigurationSection("database.balances"));
+            transactionWriter = new TransactionWriter(plugin, this, config.getConfigurationSection("database.write-behind"));
+            transactionWriter.start();
+
+            executor = createExecutor(config.getConfigurationSection("database.executor"));
+
+            playerIdResolver = new PlayerIdResolver(plugin, this, config.getConfigurationSection("database.player-cache"));
+            transactionHistory = new TransactionHistory(this, config.getConfigurationSection("database.history"));
+            coupleIndex = new CoupleIndex(plugin, this, config.getConfigurationSection("database.couple-index"));
+            coupleIndex.start();
+            leaderboardService = new LeaderboardService(plugin, coupleIndex, plugin.getConfig().getConfigurationSection("leaderboards"));
+            leaderboardService.start();
+            ConfigurationSection cacheConfig = plugin.getConfig().getConfigurationSection("performance.cache");
+            playerRepository = new PlayerRepository(plugin, this, cacheConfig);
+            coupleRepository = new CoupleRepository(plugin, this, cacheConfig);
+            transactionRepository = new TransactionRepository(this);
+            ConfigurationSection progressConfig = plugin.getConfigManager().getConfig("missions.yml")
+                .getConfigurationSection("progress");
+            missionProgressLog = new MissionProgressLog(plugin, this, progressConfig);
+            missionRepository = new MissionRepository(this);
+
+            sweepTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                playerIdResolver::sweep, 1200L, 1200L);
+
+            BalanceVerifier balanceVerifier = new BalanceVerifier(plugin, this, config.getConfigurationSection("database.balances"));
+            long verifyInterval = Math.max(60, config.getLong("database.balances.verify-interval", 3600)) * 20L;
+            verifyTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                balanceVerifier::verify, verifyInterval, verifyInterval);
+            transactionReconciler = new TransactionReconciler(plugin, this, config.getConfigurationSection("database.reconciler"));
+            long reconcileInterval = Math.max(1, config.getLong("database.reconciler.interval", 30)) * 20L;
+            reconcileTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                transactionReconciler::reconcile, reconcileInterval, reconcileInterval);
+            long progressInterval = Math.max(1, progressConfig != null ? progressConfig.getLong("save-interval", 300) : 300) * 20L;
+            missionProgressTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                missionProgressLog::persist, progressInterval, progressInterval);
+
+            started = true;
             plugin.getLogger().info("Database connection established successfully!");
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to initialize database connection!");
@@ -48,69 +159,180 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Worker threads for queries issued off the main thread. The queue is
+     * bounded so a stalled database fails requests fast instead of piling up
+     * work; with virtual threads the number of tasks in flight is capped instead.
+     */
+    private ExecutorService createExecutor(ConfigurationSection config) {
+        int threads = Math.max(1, config != null ? config.getInt("threads", 4) : 4);
+        int queueCapacity = Math.max(1, config != null ? config.getInt("queue-capacity", 1000) : 1000);
+
+        if (config != null && config.getBoolean("virtual-threads", false)) {
+            try {
+                ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                plugin.getLogger().info("Database queries run on virtual threads");
+                return new BoundedExecutor(virtual, threads + queueCapacity);
+            } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+                plugin.getLogger().warning("Virtual threads are not available on this JVM, using platform threads");
+            }
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "LOV4CRAFT-Database-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Runs the task on the database executor. If the executor is saturated the
+     * returned future fails with a {@link RejectedExecutionException} instead
+     * of the exception escaping to the caller.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HikariDataSource createDataSource(String poolName, ConfigurationSection connection,
+                                              PoolMetrics metrics, boolean readOnly) {
+        if (connection == null) {
+            throw new IllegalArgumentException("Missing database connection settings for " + poolName);
+        }
+        ConfigurationSection pool = connection.getConfigurationSection("pool");
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(poolName);
+        dialect.configure(hikariConfig, connection, plugin.getDataFolder());
+        hikariConfig.setReadOnly(readOnly);
+        
+        // HikariCP settings
+        hikariConfig.setMaximumPoolSize(pool != null ? pool.getInt("maximum-pool-size", 10) : 10);
+        hikariConfig.setMinimumIdle(pool != null ? pool.getInt("minimum-idle", 2) : 2);
+        hikariConfig.setIdleTimeout(pool != null ? pool.getLong("idle-timeout", 300000) : 300000);
+        hikariConfig.setConnectionTimeout(pool != null ? pool.getLong("connection-timeout", 10000) : 10000);
+        hikariConfig.setMaxLifetime(pool != null ? pool.getLong("max-lifetime", 600000) : 600000);
+        hikariConfig.setLeakDetectionThreshold(pool != null ? pool.getLong("leak-detection-threshold", 0) : 0);
+        hikariConfig.setMetricsTrackerFactory(metrics);
+
+        return new HikariDataSource(hikariConfig);
+    }
+
     public Connection getConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("Database connection has not been initialized!");
         }
+        checkThread();
         return dataSource.getConnection();
     }
 
-    private void createTables() {
+    /**
+     * Returns a connection for read-heavy queries that tolerate replication lag,
+     * such as history, leaderboards and the mission catalog. Falls back to the
+     * primary when no replica is configured.
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            return replicaDataSource.getConnection();
+        }
+        return getConnection();
+    }
+
+    /**
+     * Flags JDBC work on the server thread once startup is over. Logged at most
+     * once a minute with the offending stack trace.
+     */
+    private void checkThread() {
+        if (!started || !plugin.getServer().isPrimaryThread()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long last = lastMainThreadWarning.get();
+        if (now - last >= 60000L && lastMainThreadWarning.compareAndSet(last, now)) {
+            plugin.getLogger().log(Level.WARNING, "Database connection requested on the main thread, use a repository instead",
+                new IllegalStateException("Synchronous database access"));
+        }
+    }
+
+    private void migrateSchema(FileConfiguration config) throws SQLException {
         try (Connection conn = getConnection()) {
-            // Create necessary tables
-            String[] tables = {
-                // Players table
-                """
-                CREATE TABLE IF NOT EXISTS players (
-                    id BIGINT PRIMARY KEY AUTO_INCREMENT,
-                    uuid VARCHAR(36) UNIQUE NOT NULL,
-                    username VARCHAR(16) NOT NULL,
-                    wallet_address VARCHAR(42),
-                    paypal_email VARCHAR(255),
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-                )
-                """,
-                // Couples table
-                """
-                CREATE TABLE IF NOT EXISTS couples (
-                    id BIGINT PRIMARY KEY AUTO_INCREMENT,
-                    player1_id BIGINT NOT NULL,
-                    player2_id BIGINT NOT NULL,
-                    status ENUM('pending', 'active', 'inactive') DEFAULT 'pending',
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                    FOREIGN KEY (player1_id) REFERENCES players(id),
-                    FOREIGN KEY (player2_id) REFERENCES players(id)
-                )
-                """,
-                // Transactions table
-                """
-                CREATE TABLE IF NOT EXISTS transactions (
-                    id BIGINT PRIMARY KEY AUTO_INCREMENT,
-                    player_id BIGINT NOT NULL,
-                    type ENUM('reward', 'purchase', 'withdrawal') NOT NULL,
-                    amount DECIMAL(18,8) NOT NULL,
-                    currency VARCHAR(10) NOT NULL,
-                    tx_hash VARCHAR(66),
-                    status ENUM('pending', 'completed', 'failed') DEFAULT 'pending',
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-                    FOREIGN KEY (player_id) REFERENCES players(id)
-                )
-                """
-            };
-
-            for (String table : tables) {
-                conn.createStatement().execute(table);
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed to create database tables!");
-            e.printStackTrace();
+            dialect.prepare(conn);
         }
+        new SchemaMigrator(plugin, this, config.getConfigurationSection("database.migrations")).migrate();
     }
 
     public void shutdown() {
+        started = false;
+
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+
+        if (verifyTask != null) {
+            verifyTask.cancel();
+            verifyTask = null;
+        }
+
+        if (reconcileTask != null) {
+            reconcileTask.cancel();
+            reconcileTask = null;
+        }
+
+        if (missionProgressTask != null) {
+            missionProgressTask.cancel();
+            missionProgressTask = null;
+        }
+
+        // Fold what is left in the stream while Redis and the pool are still open
+        if (missionProgressLog != null) {
+            missionProgressLog.persist();
+            missionProgressLog = null;
+        }
+
+        if (coupleIndex != null) {
+            coupleIndex.shutdown();
+            coupleIndex = null;
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+
+        // Flush queued ledger rows while the pool is still open
+        if (transactionWriter != null) {
+            transactionWriter.shutdown();
+            transactionWriter = null;
+        }
+
+        // Only after the drain, which still feeds committed rewards to the boards
+        if (leaderboardService != null) {
+            leaderboardService.shutdown();
+            leaderboardService = null;
+        }
+
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+        }
+        replicaDataSource = null;
+        replicaMetrics = null;
+
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
         }
@@ -0,0 +1,17 @@
+package com.lov4craft.core.database;
+
+import java.util.HexFormat;
+
+/**
+ * MySQL built-ins used by the schema that H2 lacks, registered as aliases by
+ * {@link SqlDialect#H2}. Kept free of other dependencies because H2 loads
+ * the class reflectively.
+ */
+public final class H2Functions {
+    private H2Functions() {
+    }
+
+    public static byte[] unhex(String hex) {
+        return hex != null ? HexFormat.of().parseHex(hex) : null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lov4craft.core.database;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Position in a player's transaction history, encoded as an opaque URL-safe
+ * token so chat pagination or a web panel can resume without OFFSET scans.
+ *
+ * <p>created_at is kept as seconds plus nanoseconds rather than epoch
+ * millis: the column holds microseconds on H2 and on MySQL with fractional
+ * precision, and a truncated cursor would skip rows sharing the millisecond.
+ */
+public record HistoryCursor(long createdAtSeconds, int createdAtNanos, long id) {
+    private static final int LENGTH = 20;
+
+    public static HistoryCursor of(Timestamp createdAt, long id) {
+        return new HistoryCursor(Math.floorDiv(createdAt.getTime(), 1000L), createdAt.getNanos(), id);
+    }
+
+    public Timestamp createdAt() {
+        Timestamp timestamp = new Timestamp(createdAtSeconds * 1000L);
+        timestamp.setNanos(createdAtNanos);
+        return timestamp;
+    }
+
+    public String encode() {
+        byte[] bytes = ByteBuffer.allocate(LENGTH).putLong(createdAtSeconds).putInt(createdAtNanos).putLong(id).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static HistoryCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid history cursor: " + token, e);
+        }
+        if (bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Invalid history cursor: " + token);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        if (nanos < 0 || nanos > 999_999_999) {
+            throw new IllegalArgumentException("Invalid history cursor: " + token);
+        }
+        return new HistoryCursor(seconds, nanos, buffer.getLong());
+    }
+}
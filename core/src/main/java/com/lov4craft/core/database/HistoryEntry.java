@@ -0,0 +1,12 @@
+package com.lov4craft.core.database;
+
+import java.math.BigDecimal;
+
+public record HistoryEntry(
+    long id,
+    TransactionType type,
+    BigDecimal amount,
+    String currency,
+    TransactionStatus status,
+    long createdAt
+) {}
@@ -0,0 +1,12 @@
+package com.lov4craft.core.database;
+
+import java.util.List;
+
+public record HistoryPage(
+    List<HistoryEntry> entries,
+    HistoryCursor nextCursor
+) {
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
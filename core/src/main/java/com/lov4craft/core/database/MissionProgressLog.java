@@ -0,0 +1,437 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.redis.RedisManager;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XAutoClaimParams;
+import redis.clients.jedis.params.XReadGroupParams;
+import redis.clients.jedis.resps.StreamConsumersInfo;
+import redis.clients.jedis.resps.StreamEntry;
+import redis.clients.jedis.resps.StreamPendingSummary;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durable buffer for couple mission progress. Gameplay code appends deltas
+ * to a Redis Stream with a pipelined XADD and never waits for it. Every save
+ * interval the stream is read through a consumer group, deltas are folded
+ * per couple and mission, and written as one batched upsert before being
+ * acknowledged, so a crash loses nothing that reached Redis.
+ *
+ * <p>Delivery is at least once. The id of every applied entry is stored in
+ * the same transaction as its progress and redelivered entries are skipped,
+ * so progress is not counted twice when a server dies between the commit and
+ * the XACK, whatever order entries arrive in. Ids below the oldest pending
+ * entry can no longer be redelivered and are pruned after each run.
+ */
+public class MissionProgressLog {
+    private static final String UPSERT_SQL = """
+        INSERT INTO mission_progress (couple_id, mission_id, progress, last_event) VALUES (?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            progress = progress + VALUES(progress),
+            last_event = GREATEST(last_event, VALUES(last_event))
+        """;
+    private static final String SELECT_PROCESSED_SQL = "SELECT event_id FROM mission_progress_events WHERE event_id IN (%s)";
+    private static final String INSERT_PROCESSED_SQL = "INSERT INTO mission_progress_events (event_id) VALUES (?)";
+    private static final String PRUNE_PROCESSED_SQL = "DELETE FROM mission_progress_events WHERE event_id < ?";
+    private static final String FALLBACK_SQL = """
+        INSERT INTO mission_progress (couple_id, mission_id, progress, last_event) VALUES (?, ?, ?, 0)
+        ON DUPLICATE KEY UPDATE progress = progress + VALUES(progress)
+        """;
+    private static final String FIELD_COUPLE = "c";
+    private static final String FIELD_MISSION = "m";
+    private static final String FIELD_DELTA = "d";
+
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final AtomicBoolean running;
+    private final String streamKey;
+    private final String group;
+    private final String consumer;
+    private final int batchSize;
+    private final long maxLength;
+    private final long claimIdleMillis;
+    private final long maxRunMillis;
+
+    // Deltas that could not be appended to the stream; persisted directly on the next run
+    private final Map<ProgressKey, Long> fallback;
+    private volatile boolean groupCreated;
+    // Newest entry acknowledged by this server, guarded by running
+    private long lastAcked;
+
+    @Getter
+    private final LongAdder appendedCount;
+
+    @Getter
+    private final LongAdder fallbackCount;
+
+    @Getter
+    private final LongAdder foldedCount;
+
+    @Getter
+    private final LongAdder writtenCount;
+
+    public MissionProgressLog(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.running = new AtomicBoolean(false);
+        ConfigurationSection stream = config != null ? config.getConfigurationSection("stream") : null;
+        this.streamKey = plugin.getConfigManager().getConfig("redis.yml").getString("redis.key-prefix", "lov4craft:")
+            + "missions:progress";
+        this.group = stream != null ? stream.getString("group", "persister") : "persister";
+        String configuredConsumer = stream != null ? stream.getString("consumer", "") : "";
+        this.consumer = configuredConsumer == null || configuredConsumer.isEmpty()
+            ? defaultConsumer(plugin) : configuredConsumer;
+        this.batchSize = Math.max(1, stream != null ? stream.getInt("batch-size", 500) : 500);
+        this.maxLength = Math.max(1000, stream != null ? stream.getLong("max-length", 1000000) : 1000000);
+        this.claimIdleMillis = Math.max(1000, stream != null ? stream.getLong("claim-idle", 600000) : 600000);
+        this.maxRunMillis = Math.max(1, stream != null ? stream.getLong("max-run-millis", 5000) : 5000);
+        this.fallback = new ConcurrentHashMap<>();
+        this.appendedCount = new LongAdder();
+        this.fallbackCount = new LongAdder();
+        this.foldedCount = new LongAdder();
+        this.writtenCount = new LongAdder();
+    }
+
+    /**
+     * Host name and server port, stable across restarts so a server finds
+     * its own unacknowledged entries again instead of leaving them to
+     * another server's claim after claim-idle.
+     */
+    private static String defaultConsumer(LOV4CraftCore plugin) {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + ":" + plugin.getServer().getPort();
+    }
+
+    /**
+     * Appends a progress delta. Safe to call from the main thread: the XADD
+     * is queued on the shared Redis pipeline and the call returns immediately.
+     */
+    public void record(long coupleId, String missionId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        ProgressKey key = new ProgressKey(coupleId, missionId);
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            buffer(key, delta);
+            return;
+        }
+
+        Map<String, String> fields = Map.of(
+            FIELD_COUPLE, Long.toString(coupleId),
+            FIELD_MISSION, missionId,
+            FIELD_DELTA, Long.toString(delta));
+        XAddParams params = XAddParams.xAddParams().maxLen(maxLength).approximateTrimming();
+        redis.batched(pipeline -> pipeline.xadd(streamKey, params, fields)).whenComplete((id, error) -> {
+            if (error != null) {
+                buffer(key, delta);
+            } else {
+                appendedCount.increment();
+            }
+        });
+    }
+
+    private void buffer(ProgressKey key, long delta) {
+        fallback.merge(key, delta, Long::sum);
+        fallbackCount.increment();
+    }
+
+    /**
+     * Persists everything readable within one time slice: buffered fallback
+     * deltas, this consumer's unacknowledged entries, entries abandoned by
+     * dead consumers and finally new entries. Then prunes ids that can no
+     * longer be redelivered and removes consumers that are gone. Skipped if
+     * a run is in progress.
+     */
+    public void persist() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long deadline = System.currentTimeMillis() + maxRunMillis;
+            persistFallback();
+
+            RedisManager redis = plugin.getRedisManager();
+            if (redis == null || !redis.isAvailable()) {
+                return;
+            }
+            ensureGroup(redis);
+
+            // Entries delivered to this consumer before a restart
+            StreamEntryID cursor = new StreamEntryID();
+            while (System.currentTimeMillis() < deadline) {
+                List<StreamEntry> entries = read(redis, cursor);
+                if (entries.isEmpty()) {
+                    break;
+                }
+                cursor = entries.get(entries.size() - 1).getID();
+                apply(redis, entries);
+            }
+
+            // Entries left behind by consumers that went away
+            cursor = new StreamEntryID();
+            while (System.currentTimeMillis() < deadline) {
+                StreamEntryID start = cursor;
+                Map.Entry<StreamEntryID, List<StreamEntry>> claimed = redis.execute("XAUTOCLAIM", jedis ->
+                    jedis.xautoclaim(streamKey, group, consumer, claimIdleMillis, start,
+                        new XAutoClaimParams().count(batchSize)));
+                apply(redis, claimed.getValue());
+                cursor = claimed.getKey();
+                if (cursor.getTime() == 0 && cursor.getSequence() == 0) {
+                    break;
+                }
+            }
+
+            while (System.currentTimeMillis() < deadline) {
+                List<StreamEntry> entries = read(redis, StreamEntryID.UNRECEIVED_ENTRY);
+                if (entries.isEmpty()) {
+                    break;
+                }
+                apply(redis, entries);
+            }
+
+            pruneProcessed(redis);
+            removeIdleConsumers(redis);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Mission progress persistence failed: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void ensureGroup(RedisManager redis) {
+        if (groupCreated) {
+            return;
+        }
+        try {
+            redis.execute("XGROUP", jedis -> jedis.xgroupCreate(streamKey, group, new StreamEntryID(), true));
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupCreated = true;
+    }
+
+    private List<StreamEntry> read(RedisManager redis, StreamEntryID from) {
+        List<Map.Entry<String, List<StreamEntry>>> result = redis.execute("XREADGROUP", jedis ->
+            jedis.xreadGroup(group, consumer, XReadGroupParams.xReadGroupParams().count(batchSize),
+                Map.of(streamKey, from)));
+        if (result == null || result.isEmpty() || result.get(0).getValue() == null) {
+            return List.of();
+        }
+        return result.get(0).getValue();
+    }
+
+    /**
+     * Folds one batch, commits it and acknowledges it. Entries whose ids are
+     * already recorded were applied before and only need acknowledging. A
+     * failed commit, including a duplicate id from a server applying the
+     * same entry concurrently, leaves the entries pending so they are read
+     * again on the next run.
+     */
+    private void apply(RedisManager redis, List<StreamEntry> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Map<Long, StreamEntry> byEvent = new LinkedHashMap<>();
+        StreamEntryID[] ids = new StreamEntryID[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            StreamEntry entry = entries.get(i);
+            ids[i] = entry.getID();
+            Map<String, String> fields = entry.getFields();
+            // Trimmed entries come back without fields; there is nothing left to apply
+            if (fields != null && fields.containsKey(FIELD_COUPLE)) {
+                byEvent.put(eventOrder(entry.getID()), entry);
+            }
+        }
+
+        if (!byEvent.isEmpty()) {
+            try (Connection conn = databaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    byEvent.keySet().removeAll(selectProcessed(conn, byEvent.keySet()));
+
+                    Map<ProgressKey, Fold> folded = new LinkedHashMap<>();
+                    for (Map.Entry<Long, StreamEntry> event : byEvent.entrySet()) {
+                        Map<String, String> fields = event.getValue().getFields();
+                        try {
+                            ProgressKey key = new ProgressKey(Long.parseLong(fields.get(FIELD_COUPLE)),
+                                fields.get(FIELD_MISSION));
+                            folded.computeIfAbsent(key, ignored -> new Fold()).add(
+                                Long.parseLong(fields.get(FIELD_DELTA)), event.getKey());
+                        } catch (NumberFormatException e) {
+                            plugin.getLogger().warning("Skipping malformed mission progress entry "
+                                + event.getValue().getID());
+                        }
+                    }
+
+                    if (!byEvent.isEmpty()) {
+                        try (PreparedStatement statement = conn.prepareStatement(INSERT_PROCESSED_SQL)) {
+                            for (long event : byEvent.keySet()) {
+                                statement.setLong(1, event);
+                                statement.addBatch();
+                            }
+                            statement.executeBatch();
+                        }
+                    }
+                    if (!folded.isEmpty()) {
+                        write(conn, UPSERT_SQL, folded, true);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        }
+        redis.execute("XACK", jedis -> jedis.xack(streamKey, group, ids));
+        foldedCount.add(entries.size());
+        lastAcked = Math.max(lastAcked, eventOrder(ids[ids.length - 1]));
+    }
+
+    private Set<Long> selectProcessed(Connection conn, Set<Long> events) throws SQLException {
+        Set<Long> processed = new HashSet<>();
+        String placeholders = String.join(",", Collections.nCopies(events.size(), "?"));
+        try (PreparedStatement statement = conn.prepareStatement(String.format(SELECT_PROCESSED_SQL, placeholders))) {
+            int index = 1;
+            for (long event : events) {
+                statement.setLong(index++, event);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    processed.add(rs.getLong(1));
+                }
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Every entry older than the group's oldest pending entry was
+     * acknowledged and cannot be delivered again, so its id is not needed.
+     * Without pending entries everything up to the last entry this server
+     * acknowledged qualifies.
+     */
+    private void pruneProcessed(RedisManager redis) throws SQLException {
+        StreamPendingSummary pending = redis.execute("XPENDING", jedis -> jedis.xpending(streamKey, group));
+        long bound = pending != null && pending.getTotal() > 0 && pending.getMinId() != null
+            ? eventOrder(pending.getMinId()) : lastAcked + 1;
+        if (bound <= 1) {
+            return;
+        }
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(PRUNE_PROCESSED_SQL)) {
+            statement.setLong(1, bound);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Drops consumers of servers that are gone. Only consumers without
+     * pending entries are removed, as XGROUP DELCONSUMER discards them;
+     * entries of a dead consumer are first taken over by XAUTOCLAIM.
+     */
+    private void removeIdleConsumers(RedisManager redis) {
+        List<StreamConsumersInfo> consumers = redis.execute("XINFO", jedis -> jedis.xinfoConsumers(streamKey, group));
+        for (StreamConsumersInfo info : consumers) {
+            if (!info.getName().equals(consumer) && info.getPending() == 0 && info.getIdle() >= claimIdleMillis) {
+                redis.execute("XGROUP", jedis -> jedis.xgroupDelConsumer(streamKey, group, info.getName()));
+            }
+        }
+    }
+
+    private void persistFallback() throws SQLException {
+        if (fallback.isEmpty()) {
+            return;
+        }
+        Map<ProgressKey, Fold> drained = new LinkedHashMap<>();
+        for (ProgressKey key : fallback.keySet()) {
+            Long delta = fallback.remove(key);
+            if (delta != null) {
+                drained.computeIfAbsent(key, ignored -> new Fold()).add(delta, 0);
+            }
+        }
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                write(conn, FALLBACK_SQL, drained, false);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            drained.forEach((key, fold) -> fallback.merge(key, fold.delta, Long::sum));
+            throw e;
+        }
+    }
+
+    private void write(Connection conn, String sql, Map<ProgressKey, Fold> folded, boolean withEvent)
+            throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+            for (Map.Entry<ProgressKey, Fold> entry : folded.entrySet()) {
+                statement.setLong(1, entry.getKey().coupleId());
+                statement.setString(2, entry.getKey().missionId());
+                statement.setLong(3, entry.getValue().delta);
+                if (withEvent) {
+                    statement.setLong(4, entry.getValue().lastEvent);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        writtenCount.add(folded.size());
+    }
+
+    /**
+     * Orders stream ids as a single long: milliseconds in the high bits,
+     * the per-millisecond sequence in the low 20.
+     */
+    private static long eventOrder(StreamEntryID id) {
+        return (id.getTime() << 20) | Math.min(id.getSequence(), 0xFFFFFL);
+    }
+
+    public long getBufferedCount() {
+        return fallback.size();
+    }
+
+    private record ProgressKey(long coupleId, String missionId) {
+    }
+
+    private static final class Fold {
+        private long delta;
+        private long lastEvent;
+
+        void add(long delta, long event) {
+            this.delta += delta;
+            this.lastEvent = Math.max(lastEvent, event);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.util.UuidLongMap;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Resolves Bukkit UUIDs to players.id. Online players are pinned in memory;
+ * players who left stay cached for {@code offline-retention} seconds.
+ */
+public class PlayerIdResolver {
+    private static final String UPSERT_SQL = """
+        INSERT INTO players (uuid, uuid_bin, username) VALUES (?, ?, ?)
+        ON DUPLICATE KEY UPDATE username = VALUES(username), uuid_bin = VALUES(uuid_bin), id = LAST_INSERT_ID(id)
+        """;
+    private static final String SELECT_SQL = "SELECT id FROM players WHERE uuid_bin = ?";
+
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final UuidLongMap ids;
+    private final long offlineRetention;
+
+    public PlayerIdResolver(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.ids = new UuidLongMap(config != null ? config.getInt("initial-capacity", 1024) : 1024);
+        this.offlineRetention = (config != null ? config.getLong("offline-retention", 1800) : 1800) * 1000L;
+    }
+
+    /**
+     * Returns the cached id without touching the database.
+     *
+     * @return the player id, or 0 if the player is not cached
+     */
+    public long getCachedId(UUID uuid) {
+        return ids.get(uuid);
+    }
+
+    /**
+     * Resolves a player id, querying the database off-thread on a cache miss.
+     * Completes with 0 if the player has never joined.
+     */
+    public CompletableFuture<Long> resolve(UUID uuid) {
+        long cached = ids.get(uuid);
+        if (cached != 0) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return databaseManager.supplyAsync(() -> {
+            try {
+                long id = lookup(uuid);
+                if (id != 0) {
+                    // Never replaces an entry pinned by a concurrent login
+                    ids.putIfAbsent(uuid, id, System.currentTimeMillis());
+                }
+                return id;
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Inserts or refreshes the player row and pins its id. Blocking; meant for
+     * the async pre-login thread.
+     */
+    public long loadOrCreate(UUID uuid, String username) throws SQLException {
+        long id;
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(UPSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, uuid.toString());
+            statement.setBytes(2, toBytes(uuid));
+            statement.setString(3, username);
+            statement.executeUpdate();
+
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                id = keys.next() ? keys.getLong(1) : lookup(uuid);
+            }
+        }
+
+        if (id != 0) {
+            ids.put(uuid, id);
+        }
+        return id;
+    }
+
+    public void markOffline(UUID uuid) {
+        ids.unpin(uuid, System.currentTimeMillis());
+    }
+
+    public void sweep() {
+        int removed = ids.sweep(System.currentTimeMillis() - offlineRetention);
+        if (removed > 0 && plugin.getConfig().getBoolean("debug", false)) {
+            plugin.getLogger().info("Evicted " + removed + " offline player ids from cache");
+        }
+    }
+
+    public int getCachedCount() {
+        return ids.size();
+    }
+
+    public void clear() {
+        ids.clear();
+    }
+
+    private long lookup(UUID uuid) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(SELECT_SQL)) {
+            statement.setBytes(1, toBytes(uuid));
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    }
+}
@@ -0,0 +1,94 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.util.LatencyHistogram;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics sink for one pool. Separates pool starvation (acquire
+ * latency, waiting threads, timeouts) from slow queries (usage time).
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    @Getter
+    private final String poolName;
+
+    @Getter
+    private final LatencyHistogram acquireNanos;
+
+    @Getter
+    private final LatencyHistogram usageMillis;
+
+    @Getter
+    private final LongAdder timeouts;
+
+    private volatile PoolStats poolStats;
+
+    public PoolMetrics(String poolName) {
+        this.poolName = poolName;
+        this.acquireNanos = new LatencyHistogram();
+        this.usageMillis = new LatencyHistogram();
+        this.timeouts = new LongAdder();
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireNanos.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.record(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getIdleConnections() : 0;
+    }
+
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+
+    public int getMaxConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getMaxConnections() : 0;
+    }
+
+    public String describe() {
+        LatencyHistogram.Snapshot acquire = acquireNanos.snapshot();
+        LatencyHistogram.Snapshot usage = usageMillis.snapshot();
+        return String.format(
+            "%s: active=%d idle=%d max=%d waiting=%d timeouts=%d | acquire p50=%.2fms p99=%.2fms max=%.2fms | usage p50=%dms p99=%dms",
+            poolName, getActiveConnections(), getIdleConnections(), getMaxConnections(), getPendingThreads(),
+            timeouts.sum(),
+            toMillis(acquire.getValueAtPercentile(50)), toMillis(acquire.getValueAtPercentile(99)),
+            toMillis(acquire.getMax()),
+            usage.getValueAtPercentile(50), usage.getValueAtPercentile(99));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
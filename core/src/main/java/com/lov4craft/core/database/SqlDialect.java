@@ -0,0 +1,129 @@
+package com.lov4craft.core.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Storage backends selected with {@code database.type}. Both run the same
+ * schema and queries; H2 runs in MySQL compatibility mode inside the server
+ * process, which suits small shards and test rigs that should not pay for
+ * network round trips.
+ */
+public enum SqlDialect {
+    MYSQL {
+        @Override
+        public void configure(HikariConfig hikariConfig, ConfigurationSection connection, File dataFolder) {
+            hikariConfig.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s",
+                connection.getString("host", "localhost"),
+                connection.getInt("port", 3306),
+                connection.getString("name", "lov4craft")));
+            hikariConfig.setUsername(connection.getString("username", "root"));
+            hikariConfig.setPassword(connection.getString("password", ""));
+            hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+            hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+            hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+            // Lets the driver collapse JDBC batches into multi-row INSERTs
+            hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+
+        @Override
+        public void lock(Connection conn, String name, int timeoutSeconds) throws SQLException {
+            try (PreparedStatement statement = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                statement.setString(1, name);
+                statement.setInt(2, timeoutSeconds);
+                try (ResultSet rs = statement.executeQuery()) {
+                    // 0 on timeout, NULL on error
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        throw new SQLException("Timed out after " + timeoutSeconds + "s waiting for lock " + name);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void unlock(Connection conn, String name) throws SQLException {
+            try (PreparedStatement statement = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                statement.setString(1, name);
+                statement.executeQuery().close();
+            }
+        }
+    },
+    H2 {
+        @Override
+        public void configure(HikariConfig hikariConfig, ConfigurationSection connection, File dataFolder) {
+            ConfigurationSection embedded = connection.getConfigurationSection("embedded");
+            String location;
+            if (embedded != null && embedded.getBoolean("in-memory", false)) {
+                // Kept alive until the pool closes its last connection
+                location = "mem:lov4craft;DB_CLOSE_DELAY=-1";
+            } else {
+                String file = embedded != null ? embedded.getString("file", "data/lov4craft") : "data/lov4craft";
+                location = "file:" + new File(dataFolder, file).getAbsolutePath();
+            }
+
+            hikariConfig.setDriverClassName("org.h2.Driver");
+            hikariConfig.setJdbcUrl("jdbc:h2:" + location
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE");
+            hikariConfig.setUsername("sa");
+            hikariConfig.setPassword("");
+        }
+
+        @Override
+        public void prepare(Connection conn) throws SQLException {
+            try (Statement statement = conn.createStatement()) {
+                statement.execute("CREATE ALIAS IF NOT EXISTS UNHEX FOR '" + H2Functions.class.getName() + ".unhex'");
+            }
+        }
+    };
+
+    /**
+     * Points the pool at this backend.
+     */
+    public abstract void configure(HikariConfig hikariConfig, ConfigurationSection connection, File dataFolder);
+
+    /**
+     * Runs once on startup before schema migrations.
+     */
+    public void prepare(Connection conn) throws SQLException {
+    }
+
+    /**
+     * Takes a named lock owned by the connection until {@link #unlock}, so
+     * servers sharing the database take turns. Embedded databases are opened
+     * by one server at a time and need none.
+     *
+     * @throws SQLException if the lock is not granted within the timeout
+     */
+    public void lock(Connection conn, String name, int timeoutSeconds) throws SQLException {
+    }
+
+    public void unlock(Connection conn, String name) throws SQLException {
+    }
+
+    /**
+     * Embedded backends have no read replicas or table partitioning.
+     */
+    public boolean isEmbedded() {
+        return this != MYSQL;
+    }
+
+    public static SqlDialect fromConfig(String value) {
+        if (value == null) {
+            return MYSQL;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown database type: " + value);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.lov4craft.core.database;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Pages through a player's ledger newest first using keyset pagination on
+ * (created_at, id), so every page costs one index range scan regardless of
+ * how deep into the history the caller is.
+ */
+public class TransactionHistory {
+    private static final String FIRST_PAGE_SQL = """
+        SELECT id, type, amount, currency, status, created_at FROM transactions
+        WHERE player_id = ?
+        ORDER BY created_at DESC, id DESC
+        LIMIT ?
+        """;
+    private static final String NEXT_PAGE_SQL = """
+        SELECT id, type, amount, currency, status, created_at FROM transactions
+        WHERE player_id = ? AND (created_at < ? OR (created_at = ? AND id < ?))
+        ORDER BY created_at DESC, id DESC
+        LIMIT ?
+        """;
+
+    private final DatabaseManager databaseManager;
+    private final int maxPageSize;
+
+    public TransactionHistory(DatabaseManager databaseManager, ConfigurationSection config) {
+        this.databaseManager = databaseManager;
+        this.maxPageSize = Math.max(1, config != null ? config.getInt("max-page-size", 50) : 50);
+    }
+
+    /**
+     * Fetches one page of history off the main thread.
+     *
+     * @param cursor position returned by the previous page, or null for the newest entries
+     */
+    public CompletableFuture<HistoryPage> fetchPage(long playerId, HistoryCursor cursor, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, maxPageSize));
+        return databaseManager.supplyAsync(() -> {
+            try {
+                return queryPage(playerId, cursor, limit);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private HistoryPage queryPage(long playerId, HistoryCursor cursor, int limit) throws SQLException {
+        List<HistoryEntry> entries = new ArrayList<>(limit);
+        boolean hasMore = false;
+        Timestamp lastCreatedAt = null;
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement statement = conn.prepareStatement(cursor == null ? FIRST_PAGE_SQL : NEXT_PAGE_SQL)) {
+            int index = 1;
+            statement.setLong(index++, playerId);
+            if (cursor != null) {
+                Timestamp createdAt = cursor.createdAt();
+                statement.setTimestamp(index++, createdAt);
+                statement.setTimestamp(index++, createdAt);
+                statement.setLong(index++, cursor.id());
+            }
+            // One extra row tells us whether another page exists
+            statement.setInt(index, limit + 1);
+            statement.setFetchSize(limit + 1);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if (entries.size() == limit) {
+                        hasMore = true;
+                        break;
+                    }
+                    // Full precision for the cursor, millis are enough for display
+                    lastCreatedAt = rs.getTimestamp("created_at");
+                    entries.add(new HistoryEntry(
+                        rs.getLong("id"),
+                        TransactionType.fromSqlValue(rs.getString("type")),
+                        rs.getBigDecimal("amount"),
+                        rs.getString("currency"),
+                        TransactionStatus.fromSqlValue(rs.getString("status")),
+                        lastCreatedAt.getTime()
+                    ));
+                }
+            }
+        }
+
+        HistoryCursor next = null;
+        if (hasMore) {
+            HistoryEntry last = entries.get(entries.size() - 1);
+            next = HistoryCursor.of(lastCreatedAt, last.id());
+        }
+        return new HistoryPage(entries, next);
+    }
+}
@@ -0,0 +1,191 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.LOV4CraftCore;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Settles pending payouts against the crypto service. Pending hashes are
+ * collected in batches, checked with one provider call per batch and written
+ * back with one set-based UPDATE. Each run stops after {@code max-run-millis}
+ * and resumes from the same position next time, so a large backlog is worked
+ * off in small slices instead of one long burst of queries.
+ */
+public class TransactionReconciler {
+    private static final String SCAN_SQL = """
+        SELECT id, tx_hash FROM transactions
+        WHERE status = 'pending' AND tx_hash IS NOT NULL AND id > ?
+        ORDER BY id
+        LIMIT ?
+        """;
+    private static final String LOCK_SQL =
+        "SELECT player_id, type, amount, currency, tx_hash FROM transactions WHERE status = 'pending' AND tx_hash IN (%s) FOR UPDATE";
+    private static final String UPDATE_SQL =
+        "UPDATE transactions SET status = CASE tx_hash %s END WHERE status = 'pending' AND tx_hash IN (%s)";
+
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final AtomicBoolean running;
+    private final int batchSize;
+    private final long maxRunMillis;
+    private final long batchPauseMillis;
+
+    private volatile TransactionStatusProvider statusProvider;
+
+    // Keyset position of the scan; reset once the end of the backlog is reached
+    private long lastScannedId;
+
+    @Getter
+    private final LongAdder settledCount;
+
+    @Getter
+    private final LongAdder failedCount;
+
+    public TransactionReconciler(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.running = new AtomicBoolean(false);
+        this.batchSize = Math.max(1, config != null ? config.getInt("batch-size", 200) : 200);
+        this.maxRunMillis = Math.max(1, config != null ? config.getLong("max-run-millis", 2000) : 2000);
+        this.batchPauseMillis = Math.max(0, config != null ? config.getLong("batch-pause-millis", 50) : 50);
+        this.settledCount = new LongAdder();
+        this.failedCount = new LongAdder();
+    }
+
+    public void setStatusProvider(TransactionStatusProvider statusProvider) {
+        this.statusProvider = statusProvider;
+    }
+
+    /**
+     * Runs one time slice. Skipped if no provider is registered or a slice is
+     * already running.
+     */
+    public void reconcile() {
+        TransactionStatusProvider provider = statusProvider;
+        if (provider == null || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long deadline = System.currentTimeMillis() + maxRunMillis;
+            do {
+                Set<String> hashes = scanPendingHashes();
+                if (hashes.isEmpty()) {
+                    lastScannedId = 0;
+                    break;
+                }
+
+                Map<String, TransactionStatus> statuses = provider.checkStatuses(Collections.unmodifiableSet(hashes));
+                settle(statuses);
+
+                if (batchPauseMillis > 0) {
+                    Thread.sleep(batchPauseMillis);
+                }
+            } while (System.currentTimeMillis() < deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Transaction reconciliation failed: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Set<String> scanPendingHashes() throws SQLException {
+        Set<String> hashes = new LinkedHashSet<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(SCAN_SQL)) {
+            statement.setLong(1, lastScannedId);
+            statement.setInt(2, batchSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    lastScannedId = rs.getLong(1);
+                    hashes.add(rs.getString(2));
+                }
+            }
+        }
+        return hashes;
+    }
+
+    private void settle(Map<String, TransactionStatus> statuses) throws SQLException {
+        List<String> hashes = new ArrayList<>();
+        statuses.forEach((hash, status) -> {
+            // Providers may leave a hash out or map it to null when they do not know it yet
+            if (status != null && status != TransactionStatus.PENDING) {
+                hashes.add(hash);
+            }
+        });
+        if (hashes.isEmpty()) {
+            return;
+        }
+
+        Set<Long> changedPlayers;
+        int settled;
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Lock the rows first so the balance correction matches exactly what gets updated
+                List<TransactionRecord> failed = new ArrayList<>();
+                String placeholders = String.join(",", Collections.nCopies(hashes.size(), "?"));
+                try (PreparedStatement statement = conn.prepareStatement(String.format(LOCK_SQL, placeholders))) {
+                    for (int i = 0; i < hashes.size(); i++) {
+                        statement.setString(i + 1, hashes.get(i));
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            String hash = rs.getString("tx_hash");
+                            if (statuses.get(hash) == TransactionStatus.FAILED) {
+                                failed.add(new TransactionRecord(
+                                    rs.getLong("player_id"),
+                                    TransactionType.fromSqlValue(rs.getString("type")),
+                                    rs.getBigDecimal("amount"),
+                                    rs.getString("currency"),
+                                    hash,
+                                    TransactionStatus.PENDING
+                                ));
+                            }
+                        }
+                    }
+                }
+
+                String cases = String.join(" ", Collections.nCopies(hashes.size(), "WHEN ? THEN ?"));
+                try (PreparedStatement statement = conn.prepareStatement(String.format(UPDATE_SQL, cases, placeholders))) {
+                    int index = 1;
+                    for (String hash : hashes) {
+                        statement.setString(index++, hash);
+                        statement.setString(index++, statuses.get(hash).getSqlValue());
+                    }
+                    for (String hash : hashes) {
+                        statement.setString(index++, hash);
+                    }
+                    settled = statement.executeUpdate();
+                }
+
+                // Pending rows already count towards the balance; failed ones must be taken back
+                changedPlayers = new HashSet<>(databaseManager.getBalanceLedger().revertDeltas(conn, failed));
+                conn.commit();
+                failedCount.add(failed.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        settledCount.add(settled);
+        databaseManager.getBalanceLedger().invalidate(changedPlayers);
+    }
+}
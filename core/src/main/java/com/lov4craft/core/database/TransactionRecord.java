@@ -0,0 +1,27 @@
+package com.lov4craft.core.database;
+
+import java.math.BigDecimal;
+
+public record TransactionRecord(
+    long playerId,
+    TransactionType type,
+    BigDecimal amount,
+    String currency,
+    String txHash,
+    TransactionStatus status
+) {
+    /**
+     * Failed transactions never count towards a balance.
+     */
+    public BigDecimal balanceDelta() {
+        return status == TransactionStatus.FAILED ? BigDecimal.ZERO : type.toBalanceDelta(amount);
+    }
+
+    public static TransactionRecord reward(long playerId, BigDecimal amount, String currency) {
+        return new TransactionRecord(playerId, TransactionType.REWARD, amount, currency, null, TransactionStatus.PENDING);
+    }
+
+    public static TransactionRecord purchase(long playerId, BigDecimal amount, String currency) {
+        return new TransactionRecord(playerId, TransactionType.PURCHASE, amount, currency, null, TransactionStatus.COMPLETED);
+    }
+}
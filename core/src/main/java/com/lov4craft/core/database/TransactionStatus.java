@@ -0,0 +1,17 @@
+package com.lov4craft.core.database;
+
+import java.util.Locale;
+
+public enum TransactionStatus {
+    PENDING,
+    COMPLETED,
+    FAILED;
+
+    public String getSqlValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static TransactionStatus fromSqlValue(String value) {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
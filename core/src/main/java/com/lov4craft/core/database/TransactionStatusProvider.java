@@ -0,0 +1,18 @@
+package com.lov4craft.core.database;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Source of truth for on-chain payout status, implemented by the crypto
+ * integration and registered with {@link TransactionReconciler#setStatusProvider}.
+ */
+@FunctionalInterface
+public interface TransactionStatusProvider {
+    /**
+     * Looks up many transactions in one call.
+     *
+     * @return final status per hash; hashes that are still pending or unknown may be omitted
+     */
+    Map<String, TransactionStatus> checkStatuses(Collection<String> txHashes) throws Exception;
+}
@@ -0,0 +1,31 @@
+package com.lov4craft.core.database;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+public enum TransactionType {
+    REWARD(1),
+    PURCHASE(-1),
+    WITHDRAWAL(-1);
+
+    private final int sign;
+
+    TransactionType(int sign) {
+        this.sign = sign;
+    }
+
+    /**
+     * Returns the effect of an amount of this type on the player's balance.
+     */
+    public BigDecimal toBalanceDelta(BigDecimal amount) {
+        return sign < 0 ? amount.negate() : amount;
+    }
+
+    public String getSqlValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static TransactionType fromSqlValue(String value) {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
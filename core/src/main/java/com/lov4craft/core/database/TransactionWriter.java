@@ -0,0 +1,585 @@
+package com.lov4craft.core.database;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.leaderboard.LeaderboardService;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Write-behind queue for the transactions ledger. Reward and purchase rows are
+ * buffered in memory and flushed as JDBC batches on a dedicated thread.
+ *
+ * <p>{@link #submit} never waits. Rows that do not fit in the queue go to a
+ * bounded overflow buffer, which the writer thread appends to a spill file in
+ * the data folder; rows still unwritten at shutdown are spilled as well. The
+ * spill file is written back in batch-size chunks once the queue is drained,
+ * or on the next start. Progress is saved after every chunk, so a crash
+ * writes at most one chunk again.
+ *
+ * <p>A row the database rejects for good (SQLState class 22 or 23, e.g. an
+ * unknown player or an out-of-range amount) is isolated by splitting its
+ * batch and moved to the dead-letter file, so it cannot hold up the rows
+ * behind it. Other failures keep the batch for up to max-attempts flushes
+ * before it is spilled.
+ */
+public class TransactionWriter {
+    private static final String INSERT_SQL =
+        "INSERT INTO transactions (player_id, type, amount, currency, tx_hash, status) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final BlockingQueue<TransactionRecord> queue;
+    private final ConcurrentLinkedQueue<TransactionRecord> overflow;
+    private final AtomicInteger overflowSize;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean running;
+    private final AtomicBoolean flushRequested;
+    private final int batchSize;
+    private final int overflowCapacity;
+    private final int maxAttempts;
+    private final long flushInterval;
+    private final Path spillPath;
+    private final Path replayPath;
+    private final Path replayPositionPath;
+    private final Path deadLetterPath;
+    private final Object spillLock;
+    private final AtomicLong lastSpillWarning;
+    private final AtomicLong lastRejectWarning;
+
+    // Held by whoever writes to the database, so the flusher and shutdown never write the same rows
+    private final ReentrantLock flushLock;
+
+    // Set when rows were spilled; the flusher clears it once it has picked them up
+    private volatile boolean spillPending;
+
+    // Guarded by flushLock
+    private boolean replayStuck;
+    private List<TransactionRecord> retryBatch;
+    private int retryAttempts;
+
+    @Getter
+    private final LongAdder writtenCount;
+
+    @Getter
+    private final LongAdder batchCount;
+
+    @Getter
+    private final LongAdder rejectedCount;
+
+    @Getter
+    private final LongAdder spilledCount;
+
+    @Getter
+    private final LongAdder deadLetterCount;
+
+    public TransactionWriter(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        int capacity = Math.max(1, config != null ? config.getInt("queue-capacity", 10000) : 10000);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflow = new ConcurrentLinkedQueue<>();
+        this.overflowSize = new AtomicInteger();
+        this.batchSize = Math.max(1, config != null ? config.getInt("batch-size", 500) : 500);
+        this.overflowCapacity = Math.max(1, config != null ? config.getInt("overflow-capacity", capacity * 5) : capacity * 5);
+        this.maxAttempts = Math.max(1, config != null ? config.getInt("max-attempts", 5) : 5);
+        this.flushInterval = Math.max(10, config != null ? config.getLong("flush-interval", 1000) : 1000);
+        String spillFile = config != null ? config.getString("spill-file", "transaction-spill.log") : "transaction-spill.log";
+        String deadLetterFile = config != null
+            ? config.getString("dead-letter-file", "transaction-dead-letter.log") : "transaction-dead-letter.log";
+        this.spillPath = new File(plugin.getDataFolder(), spillFile).toPath();
+        this.replayPath = spillPath.resolveSibling(spillPath.getFileName() + ".replay");
+        this.replayPositionPath = spillPath.resolveSibling(spillPath.getFileName() + ".replay.pos");
+        this.deadLetterPath = new File(plugin.getDataFolder(), deadLetterFile).toPath();
+        this.spillLock = new Object();
+        this.lastSpillWarning = new AtomicLong();
+        this.lastRejectWarning = new AtomicLong();
+        this.flushLock = new ReentrantLock();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LOV4CRAFT-TransactionWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.running = new AtomicBoolean(false);
+        this.flushRequested = new AtomicBoolean(false);
+        this.writtenCount = new LongAdder();
+        this.batchCount = new LongAdder();
+        this.rejectedCount = new LongAdder();
+        this.spilledCount = new LongAdder();
+        this.deadLetterCount = new LongAdder();
+    }
+
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            // Rows spilled by an earlier run are written on the first flush
+            spillPending = Files.exists(spillPath) || Files.exists(replayPath);
+            executor.scheduleWithFixedDelay(this::flushSafely, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queues a ledger row for insertion without waiting or touching the disk.
+     * When the queue is full the row goes to the overflow buffer, which the
+     * writer thread spills to disk.
+     *
+     * @return false if the writer is stopped or the overflow buffer is full too
+     */
+    public boolean submit(TransactionRecord record) {
+        if (!running.get()) {
+            rejectedCount.increment();
+            return false;
+        }
+
+        if (queue.offer(record)) {
+            if (queue.size() >= batchSize) {
+                requestFlush();
+            }
+            return true;
+        }
+
+        // Queue is full: hand the row to the writer thread rather than block the caller
+        requestFlush();
+        if (overflowSize.incrementAndGet() <= overflowCapacity) {
+            overflow.add(record);
+            return true;
+        }
+        overflowSize.decrementAndGet();
+
+        rejectedCount.increment();
+        long now = System.currentTimeMillis();
+        long last = lastRejectWarning.get();
+        if (now - last >= 10000L && lastRejectWarning.compareAndSet(last, now)) {
+            plugin.getLogger().severe("Transaction write queue and overflow are full, rejecting ledger rows ("
+                + rejectedCount.sum() + " so far, latest " + record.type().getSqlValue() + " "
+                + record.amount().toPlainString() + " " + record.currency() + " for player " + record.playerId() + ")");
+        }
+        return false;
+    }
+
+    public int getQueueSize() {
+        return queue.size() + overflowSize.get();
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flushSafely);
+            } catch (Exception e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void flushSafely() {
+        flushRequested.set(false);
+        flushLock.lock();
+        try {
+            flush();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to flush transaction batch", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Call with flushLock held.
+     */
+    private void flush() throws SQLException {
+        // Park overflow on disk first, so it survives even if the database is down
+        spillOverflow();
+
+        if (retryBatch != null) {
+            List<TransactionRecord> batch = retryBatch;
+            retryBatch = null;
+            try {
+                write(batch);
+                retryAttempts = 0;
+            } catch (SQLException e) {
+                if (++retryAttempts >= maxAttempts) {
+                    // Stop it from holding up the queue; the replay tries it again later
+                    retryAttempts = 0;
+                    List<TransactionRecord> unwritten = retryBatch;
+                    retryBatch = null;
+                    if (!spill(unwritten)) {
+                        retryBatch = unwritten;
+                    } else {
+                        plugin.getLogger().severe("Spilled a transaction batch of " + unwritten.size()
+                            + " rows after " + maxAttempts + " failed attempts");
+                    }
+                }
+                throw e;
+            }
+        }
+
+        List<TransactionRecord> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+
+        replaySpill();
+    }
+
+    /**
+     * Writes the rows, splitting the batch to isolate rows the database
+     * rejects for good and moving those to the dead-letter file. On any other
+     * failure the rows not yet committed become {@link #retryBatch}.
+     */
+    private void write(List<TransactionRecord> batch) throws SQLException {
+        Deque<List<TransactionRecord>> parts = new ArrayDeque<>();
+        parts.push(batch);
+        while (!parts.isEmpty()) {
+            List<TransactionRecord> part = parts.peek();
+            try {
+                writeBatch(part);
+                parts.pop();
+            } catch (SQLException e) {
+                if (!isPermanent(e)) {
+                    List<TransactionRecord> unwritten = new ArrayList<>();
+                    parts.forEach(unwritten::addAll);
+                    retryBatch = unwritten;
+                    throw e;
+                }
+                parts.pop();
+                if (part.size() == 1) {
+                    deadLetter(part.get(0), e);
+                } else {
+                    int half = part.size() / 2;
+                    parts.push(part.subList(half, part.size()));
+                    parts.push(part.subList(0, half));
+                }
+            }
+        }
+    }
+
+    /**
+     * Data exceptions (22) and integrity constraint violations (23) fail the
+     * same way however often they are retried.
+     */
+    private static boolean isPermanent(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            String state = current.getSQLState();
+            if (state != null) {
+                return state.startsWith("22") || state.startsWith("23");
+            }
+        }
+        return false;
+    }
+
+    private void deadLetter(TransactionRecord record, SQLException cause) {
+        deadLetterCount.increment();
+        plugin.getLogger().severe("Transaction rejected by the database (" + cause.getSQLState() + ": "
+            + cause.getMessage() + "), moved to " + deadLetterPath.getFileName() + ": " + encode(record).replace('\t', ' '));
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(deadLetterPath.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(deadLetterPath, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    // Same format as the spill file, so fixed rows can be moved there to be written
+                    writer.write("# " + System.currentTimeMillis() + " " + cause.getSQLState() + " "
+                        + String.valueOf(cause.getMessage()).replace('\n', ' '));
+                    writer.newLine();
+                    writer.write(encode(record));
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to write " + deadLetterPath + ", the row above is lost", e);
+            }
+        }
+    }
+
+    private void spillOverflow() {
+        List<TransactionRecord> rows = new ArrayList<>();
+        TransactionRecord record;
+        while ((record = overflow.poll()) != null) {
+            rows.add(record);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (spill(rows)) {
+            overflowSize.addAndGet(-rows.size());
+            warnSpilling();
+        } else {
+            // Keep them in memory and try again on the next flush
+            overflow.addAll(rows);
+        }
+    }
+
+    /**
+     * Writes spilled rows in batch-size chunks. The spill file is first
+     * renamed so new rows go to a fresh one; the renamed file is deleted once
+     * all of it is written, and the number of lines done is saved after each
+     * chunk so a later pass resumes there.
+     */
+    private void replaySpill() throws SQLException {
+        synchronized (spillLock) {
+            if (spillPending && !Files.exists(replayPath)) {
+                try {
+                    if (Files.exists(spillPath)) {
+                        Files.move(spillPath, replayPath, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                    spillPending = false;
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to pick up spilled transactions: " + e.getMessage());
+                }
+            }
+        }
+        if (replayStuck || !Files.exists(replayPath)) {
+            return;
+        }
+
+        long done = readReplayPosition();
+        try (BufferedReader reader = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            List<TransactionRecord> chunk = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= done || line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                TransactionRecord record = decode(line);
+                if (record == null) {
+                    plugin.getLogger().severe("Skipping malformed spilled transaction: " + line);
+                    continue;
+                }
+                chunk.add(record);
+                if (chunk.size() >= batchSize) {
+                    writeReplayChunk(chunk, lineNumber);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeReplayChunk(chunk, lineNumber);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read spilled transactions: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.delete(replayPath);
+            Files.deleteIfExists(replayPositionPath);
+        } catch (IOException e) {
+            // Would be written twice on the next pass, so leave it to an admin
+            replayStuck = true;
+            plugin.getLogger().log(Level.SEVERE, "Wrote spilled transactions but could not delete " + replayPath
+                + "; remove it by hand before restarting or its rows are written again", e);
+        }
+    }
+
+    private void writeReplayChunk(List<TransactionRecord> chunk, long lastLine) throws SQLException, IOException {
+        try {
+            write(chunk);
+        } finally {
+            // Rows not committed are in retryBatch now, so the file is done up to here either way
+            Files.writeString(replayPositionPath, Long.toString(lastLine), StandardCharsets.UTF_8);
+        }
+    }
+
+    private long readReplayPosition() {
+        try {
+            return Files.exists(replayPositionPath)
+                ? Long.parseLong(Files.readString(replayPositionPath, StandardCharsets.UTF_8).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            plugin.getLogger().warning("Ignoring unreadable " + replayPositionPath.getFileName() + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private boolean spill(Collection<TransactionRecord> records) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(spillPath.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (TransactionRecord record : records) {
+                        writer.write(encode(record));
+                        writer.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to spill transactions to " + spillPath, e);
+                return false;
+            }
+            spillPending = true;
+        }
+        spilledCount.add(records.size());
+        return true;
+    }
+
+    private void warnSpilling() {
+        long now = System.currentTimeMillis();
+        long last = lastSpillWarning.get();
+        if (now - last >= 60000L && lastSpillWarning.compareAndSet(last, now)) {
+            plugin.getLogger().warning("Transaction write queue is full, spilling rows to " + spillPath.getFileName()
+                + " (" + spilledCount.sum() + " so far)");
+        }
+    }
+
+    private static String encode(TransactionRecord record) {
+        return record.playerId() + "\t" + record.type().getSqlValue() + "\t" + record.amount().toPlainString()
+            + "\t" + record.currency() + "\t" + (record.txHash() != null ? record.txHash() : "")
+            + "\t" + record.status().getSqlValue();
+    }
+
+    private static TransactionRecord decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            return null;
+        }
+        try {
+            return new TransactionRecord(
+                Long.parseLong(fields[0]),
+                TransactionType.fromSqlValue(fields[1]),
+                new BigDecimal(fields[2]),
+                fields[3],
+                fields[4].isEmpty() ? null : fields[4],
+                TransactionStatus.fromSqlValue(fields[5])
+            );
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void writeBatch(List<TransactionRecord> batch) throws SQLException {
+        BalanceLedger ledger = databaseManager.getBalanceLedger();
+        Set<Long> changedPlayers;
+
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement statement = conn.prepareStatement(INSERT_SQL)) {
+                for (TransactionRecord record : batch) {
+                    statement.setLong(1, record.playerId());
+                    statement.setString(2, record.type().getSqlValue());
+                    statement.setBigDecimal(3, record.amount());
+                    statement.setString(4, record.currency());
+                    if (record.txHash() != null) {
+                        statement.setString(5, record.txHash());
+                    } else {
+                        statement.setNull(5, Types.VARCHAR);
+                    }
+                    statement.setString(6, record.status().getSqlValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                // Balances move in the same transaction as the ledger rows
+                changedPlayers = ledger.applyDeltas(conn, batch);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        writtenCount.add(batch.size());
+        batchCount.increment();
+        ledger.invalidate(changedPlayers);
+
+        // Only committed rewards count, so a rolled back batch never reaches a board
+        LeaderboardService leaderboard = databaseManager.getLeaderboardService();
+        if (leaderboard != null) {
+            for (TransactionRecord record : batch) {
+                leaderboard.recordReward(record);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting rows and writes everything still queued before returning.
+     * Whatever cannot be written is spilled for the next start.
+     */
+    public void shutdown() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        // A flusher stuck in JDBC ignores the interrupt and may still commit its batch
+        if (!flushLock.tryLock()) {
+            List<TransactionRecord> unwritten = drainUnwritten();
+            spillOnShutdown(unwritten, null);
+            return;
+        }
+        try {
+            flush();
+        } catch (SQLException e) {
+            List<TransactionRecord> unwritten = drainUnwritten();
+            if (retryBatch != null) {
+                unwritten.addAll(retryBatch);
+                retryBatch = null;
+            }
+            spillOnShutdown(unwritten, e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<TransactionRecord> drainUnwritten() {
+        List<TransactionRecord> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        TransactionRecord record;
+        while ((record = overflow.poll()) != null) {
+            overflowSize.decrementAndGet();
+            unwritten.add(record);
+        }
+        return unwritten;
+    }
+
+    private void spillOnShutdown(List<TransactionRecord> unwritten, SQLException cause) {
+        if (unwritten.isEmpty()) {
+            return;
+        }
+        if (spill(unwritten)) {
+            plugin.getLogger().log(Level.SEVERE, "Could not drain the transaction queue, spilled " + unwritten.size()
+                + " rows to " + spillPath.getFileName() + " for the next start", cause);
+        } else {
+            plugin.getLogger().log(Level.SEVERE, "Could not drain the transaction queue, " + unwritten.size()
+                + " rows were not written", cause);
+        }
+    }
+}
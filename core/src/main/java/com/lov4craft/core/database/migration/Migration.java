@@ -0,0 +1,12 @@
+package com.lov4craft.core.database.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public interface Migration {
+    int getVersion();
+
+    String getDescription();
+
+    void migrate(Connection conn) throws SQLException;
+}
@@ -0,0 +1,128 @@
+package com.lov4craft.core.database.migration;
+
+import java.util.List;
+
+/**
+ * Registry of schema migrations. Versions are never reused or reordered;
+ * new changes are appended with the next free version number.
+ */
+public final class Migrations {
+    public static final int PARTITION_TRANSACTIONS = 3;
+
+    private Migrations() {
+    }
+
+    public static List<Migration> all() {
+        return List.of(
+            new SqlMigration(1, "Create base tables",
+                // Players table
+                """
+                CREATE TABLE IF NOT EXISTS players (
+                    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    uuid VARCHAR(36) UNIQUE NOT NULL,
+                    username VARCHAR(16) NOT NULL,
+                    wallet_address VARCHAR(42),
+                    paypal_email VARCHAR(255),
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+                )
+                """,
+                // Couples table
+                """
+                CREATE TABLE IF NOT EXISTS couples (
+                    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    player1_id BIGINT NOT NULL,
+                    player2_id BIGINT NOT NULL,
+                    status ENUM('pending', 'active', 'inactive') DEFAULT 'pending',
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    FOREIGN KEY (player1_id) REFERENCES players(id),
+                    FOREIGN KEY (player2_id) REFERENCES players(id)
+                )
+                """,
+                // Transactions table
+                """
+                CREATE TABLE IF NOT EXISTS transactions (
+                    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    player_id BIGINT NOT NULL,
+                    type ENUM('reward', 'purchase', 'withdrawal') NOT NULL,
+                    amount DECIMAL(18,8) NOT NULL,
+                    currency VARCHAR(10) NOT NULL,
+                    tx_hash VARCHAR(66),
+                    status ENUM('pending', 'completed', 'failed') DEFAULT 'pending',
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    FOREIGN KEY (player_id) REFERENCES players(id)
+                )
+                """
+            ),
+            new SqlMigration(2, "Add history and partner lookup indexes",
+                // Keyset-ordered wallet history per player
+                SqlMigration.createIndex("transactions", "idx_transactions_player_created",
+                    "CREATE INDEX idx_transactions_player_created ON transactions (player_id, created_at, id)"),
+                // Covering indexes for partner lookups from either side
+                SqlMigration.createIndex("couples", "idx_couples_player1",
+                    "CREATE INDEX idx_couples_player1 ON couples (player1_id, status, player2_id)"),
+                SqlMigration.createIndex("couples", "idx_couples_player2",
+                    "CREATE INDEX idx_couples_player2 ON couples (player2_id, status, player1_id)")
+            ),
+            // V3 (PARTITION_TRANSACTIONS) is added by SchemaMigrator when enabled
+            new SqlMigration(4, "Add binary uuid column to players",
+                SqlMigration.addColumn("players", "uuid_bin",
+                    "ALTER TABLE players ADD COLUMN uuid_bin BINARY(16) NULL AFTER uuid"),
+                SqlMigration.statement("UPDATE players SET uuid_bin = UNHEX(REPLACE(uuid, '-', '')) WHERE uuid_bin IS NULL"),
+                SqlMigration.createIndex("players", "idx_players_uuid_bin",
+                    "CREATE UNIQUE INDEX idx_players_uuid_bin ON players (uuid_bin)")
+            ),
+            new SqlMigration(5, "Create player balance ledger",
+                """
+                CREATE TABLE IF NOT EXISTS player_balances (
+                    player_id BIGINT NOT NULL,
+                    currency VARCHAR(10) NOT NULL,
+                    balance DECIMAL(18,8) NOT NULL DEFAULT 0,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    PRIMARY KEY (player_id, currency)
+                )
+                """,
+                // Seed balances from the existing ledger; IGNORE keeps a rerun from failing on seeded rows
+                """
+                INSERT IGNORE INTO player_balances (player_id, currency, balance)
+                SELECT player_id, currency, SUM(CASE WHEN type = 'reward' THEN amount ELSE -amount END)
+                FROM transactions
+                WHERE status <> 'failed'
+                GROUP BY player_id, currency
+                """
+            ),
+            new SqlMigration(6, "Add payout reconciliation indexes",
+                // Settling payouts by hash
+                SqlMigration.createIndex("transactions", "idx_transactions_tx_hash",
+                    "CREATE INDEX idx_transactions_tx_hash ON transactions (tx_hash)"),
+                // Keyset scan over pending rows
+                SqlMigration.createIndex("transactions", "idx_transactions_status",
+                    "CREATE INDEX idx_transactions_status ON transactions (status, id)")
+            ),
+            new SqlMigration(7, "Create mission progress table",
+                // last_event is the newest stream entry folded into the row
+                """
+                CREATE TABLE IF NOT EXISTS mission_progress (
+                    couple_id BIGINT NOT NULL,
+                    mission_id VARCHAR(64) NOT NULL,
+                    progress BIGINT NOT NULL DEFAULT 0,
+                    last_event BIGINT NOT NULL DEFAULT 0,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    PRIMARY KEY (couple_id, mission_id)
+                )
+                """
+            ),
+            new SqlMigration(8, "Create processed mission progress events table",
+                // Stream entries already folded into mission_progress, so redeliveries are skipped
+                """
+                CREATE TABLE IF NOT EXISTS mission_progress_events (
+                    event_id BIGINT PRIMARY KEY,
+                    processed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """
+            )
+        );
+    }
+}
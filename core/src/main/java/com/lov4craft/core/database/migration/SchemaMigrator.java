@@ -0,0 +1,140 @@
+package com.lov4craft.core.database.migration;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.database.DatabaseManager;
+import com.lov4craft.core.database.SqlDialect;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies versioned schema migrations and records them in schema_version.
+ * Each migration is timed so upgrade costs on large tables show up in the log.
+ * Servers starting together against one database run it one at a time under
+ * a named lock, so each migration is applied once.
+ */
+public class SchemaMigrator {
+    private final LOV4CraftCore plugin;
+    private final DatabaseManager databaseManager;
+    private final List<Migration> migrations;
+    private final TransactionPartitioning partitioning;
+    private final String lockName;
+    private final int lockTimeout;
+
+    public SchemaMigrator(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.migrations = new ArrayList<>(Migrations.all());
+
+        boolean partitionTransactions = config != null && config.getBoolean("partition-transactions", false)
+            && !databaseManager.getDialect().isEmbedded();
+        int partitionsAhead = config != null ? config.getInt("partitions-ahead", 3) : 3;
+        this.partitioning = partitionTransactions
+            ? new TransactionPartitioning(Migrations.PARTITION_TRANSACTIONS, partitionsAhead)
+            : null;
+        if (partitioning != null) {
+            migrations.add(partitioning);
+        }
+        migrations.sort(Comparator.comparingInt(Migration::getVersion));
+
+        String prefix = plugin.getConfigManager().getConfig("database.yml").getString("database.table-prefix", "lov4craft_");
+        this.lockName = prefix + "schema";
+        this.lockTimeout = Math.max(1, config != null ? config.getInt("lock-timeout", 300) : 300);
+    }
+
+    public void migrate() throws SQLException {
+        SqlDialect dialect = databaseManager.getDialect();
+        try (Connection conn = databaseManager.getConnection()) {
+            dialect.lock(conn, lockName, lockTimeout);
+            try {
+                createVersionTable(conn);
+                // Read under the lock, so migrations another server just applied are skipped
+                Set<Integer> applied = loadAppliedVersions(conn);
+
+                int pending = 0;
+                long totalStart = System.currentTimeMillis();
+                for (Migration migration : migrations) {
+                    if (applied.contains(migration.getVersion())) {
+                        continue;
+                    }
+                    apply(conn, migration);
+                    pending++;
+                }
+
+                if (pending > 0) {
+                    plugin.getLogger().info(String.format("Applied %d schema migration(s) in %d ms",
+                        pending, System.currentTimeMillis() - totalStart));
+                }
+
+                if (partitioning != null) {
+                    partitioning.ensureFuturePartitions(conn);
+                }
+            } finally {
+                try {
+                    dialect.unlock(conn, lockName);
+                } catch (SQLException e) {
+                    plugin.getLogger().warning("Failed to release schema lock " + lockName + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        plugin.getLogger().info(String.format("Applying schema migration V%d: %s",
+            migration.getVersion(), migration.getDescription()));
+
+        long start = System.currentTimeMillis();
+        try {
+            migration.migrate(conn);
+        } catch (SQLException e) {
+            plugin.getLogger().severe(String.format("Schema migration V%d failed after %d ms",
+                migration.getVersion(), System.currentTimeMillis() - start));
+            throw e;
+        }
+        long executionTime = System.currentTimeMillis() - start;
+
+        try (PreparedStatement statement = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description, execution_ms) VALUES (?, ?, ?)")) {
+            statement.setInt(1, migration.getVersion());
+            statement.setString(2, migration.getDescription());
+            statement.setLong(3, executionTime);
+            statement.executeUpdate();
+        }
+
+        plugin.getLogger().info(String.format("Applied schema migration V%d in %d ms",
+            migration.getVersion(), executionTime));
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    execution_ms BIGINT NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+        }
+    }
+
+    private Set<Integer> loadAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+}
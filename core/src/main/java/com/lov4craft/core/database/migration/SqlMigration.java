@@ -0,0 +1,113 @@
+package com.lov4craft.core.database.migration;
+
+import lombok.Getter;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration made of SQL statements run in order.
+ *
+ * <p>MySQL commits every DDL statement on its own, so a version that fails
+ * halfway keeps its earlier statements but is not recorded, and the next
+ * startup runs all of them again. Every statement must therefore be safe to
+ * repeat: use IF NOT EXISTS where the syntax has it, and
+ * {@link #createIndex}/{@link #addColumn} where it does not.
+ */
+@Getter
+public class SqlMigration implements Migration {
+    private final int version;
+    private final String description;
+    private final List<Step> steps;
+
+    public SqlMigration(int version, String description, String... statements) {
+        this.version = version;
+        this.description = description;
+        List<Step> list = new ArrayList<>(statements.length);
+        for (String sql : statements) {
+            list.add(statement(sql));
+        }
+        this.steps = List.copyOf(list);
+    }
+
+    public SqlMigration(int version, String description, Step... steps) {
+        this.version = version;
+        this.description = description;
+        this.steps = List.of(steps);
+    }
+
+    /**
+     * Statement that is repeatable as written, e.g. an UPDATE with a WHERE
+     * that skips rows it already changed.
+     */
+    public static Step statement(String sql) {
+        return new Step(sql, null, null, null);
+    }
+
+    /**
+     * CREATE [UNIQUE] INDEX, skipped when the table already has the index.
+     */
+    public static Step createIndex(String table, String index, String sql) {
+        return new Step(sql, Kind.INDEX, table, index);
+    }
+
+    /**
+     * ALTER TABLE ... ADD COLUMN, skipped when the table already has the column.
+     */
+    public static Step addColumn(String table, String column, String sql) {
+        return new Step(sql, Kind.COLUMN, table, column);
+    }
+
+    @Override
+    public void migrate(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            for (Step step : steps) {
+                if (!step.isApplied(conn)) {
+                    statement.execute(step.sql);
+                }
+            }
+        }
+    }
+
+    private enum Kind {
+        INDEX,
+        COLUMN
+    }
+
+    public static final class Step {
+        private final String sql;
+        private final Kind kind;
+        private final String table;
+        private final String name;
+
+        private Step(String sql, Kind kind, String table, String name) {
+            this.sql = sql;
+            this.kind = kind;
+            this.table = table;
+            this.name = name;
+        }
+
+        boolean isApplied(Connection conn) throws SQLException {
+            if (kind == null) {
+                return false;
+            }
+            DatabaseMetaData metaData = conn.getMetaData();
+            try (ResultSet rs = kind == Kind.INDEX
+                    ? metaData.getIndexInfo(conn.getCatalog(), null, table, false, false)
+                    : metaData.getColumns(conn.getCatalog(), null, table, name)) {
+                while (rs.next()) {
+                    String found = rs.getString(kind == Kind.INDEX ? "INDEX_NAME" : "COLUMN_NAME");
+                    if (name.equalsIgnoreCase(found)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
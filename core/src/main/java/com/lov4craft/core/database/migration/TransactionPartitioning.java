@@ -0,0 +1,129 @@
+package com.lov4craft.core.database.migration;
+
+import lombok.Getter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the transactions table to monthly RANGE partitions on created_at.
+ * MySQL does not allow foreign keys on partitioned tables and requires the
+ * partition column in every unique key, so the player foreign key is dropped
+ * and the primary key becomes (id, created_at).
+ */
+@Getter
+public class TransactionPartitioning implements Migration {
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String FUTURE_PARTITION = "p_future";
+
+    private final int version;
+    private final int partitionsAhead;
+
+    public TransactionPartitioning(int version, int partitionsAhead) {
+        this.version = version;
+        this.partitionsAhead = Math.max(1, partitionsAhead);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Partition transactions by month";
+    }
+
+    @Override
+    public void migrate(Connection conn) throws SQLException {
+        YearMonth first = findOldestMonth(conn);
+        YearMonth last = YearMonth.now().plusMonths(partitionsAhead);
+
+        try (Statement statement = conn.createStatement()) {
+            for (String foreignKey : findForeignKeys(conn)) {
+                statement.execute("ALTER TABLE transactions DROP FOREIGN KEY " + foreignKey);
+            }
+            statement.execute("ALTER TABLE transactions DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at) "
+                + "PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (" + partitionList(first, last) + ")");
+        }
+    }
+
+    /**
+     * Splits p_future so that partitions exist up to {@code partitionsAhead}
+     * months past the current month. Safe to call on every startup.
+     */
+    public void ensureFuturePartitions(Connection conn) throws SQLException {
+        YearMonth newest = findNewestPartition(conn);
+        if (newest == null) {
+            return;
+        }
+
+        YearMonth target = YearMonth.now().plusMonths(partitionsAhead);
+        if (!newest.isBefore(target)) {
+            return;
+        }
+
+        try (Statement statement = conn.createStatement()) {
+            statement.execute("ALTER TABLE transactions REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + partitionList(newest.plusMonths(1), target) + ")");
+        }
+    }
+
+    private String partitionList(YearMonth first, YearMonth last) {
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            partitions.add(String.format("PARTITION %s VALUES LESS THAN (UNIX_TIMESTAMP('%s-01 00:00:00'))",
+                month.format(PARTITION_NAME), month.plusMonths(1)));
+        }
+        partitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+        return String.join(", ", partitions);
+    }
+
+    private YearMonth findOldestMonth(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MIN(created_at) FROM transactions")) {
+            if (rs.next()) {
+                Timestamp oldest = rs.getTimestamp(1);
+                if (oldest != null) {
+                    return YearMonth.from(oldest.toLocalDateTime());
+                }
+            }
+        }
+        return YearMonth.now();
+    }
+
+    private YearMonth findNewestPartition(Connection conn) throws SQLException {
+        String sql = """
+            SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions' AND PARTITION_NAME <> ?
+            ORDER BY PARTITION_ORDINAL_POSITION DESC LIMIT 1
+            """;
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setString(1, FUTURE_PARTITION);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next() && rs.getString(1) != null) {
+                    return YearMonth.parse(rs.getString(1), PARTITION_NAME);
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<String> findForeignKeys(Connection conn) throws SQLException {
+        String sql = """
+            SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+            WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions'
+            """;
+        List<String> foreignKeys = new ArrayList<>();
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                foreignKeys.add(rs.getString(1));
+            }
+        }
+        return foreignKeys;
+    }
+}
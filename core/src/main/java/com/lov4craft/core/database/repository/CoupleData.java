@@ -0,0 +1,15 @@
+package com.lov4craft.core.database.repository;
+
+import com.lov4craft.core.database.CoupleStatus;
+
+public record CoupleData(
+    long id,
+    long player1Id,
+    long player2Id,
+    CoupleStatus status,
+    long createdAt
+) {
+    public long partnerOf(long playerId) {
+        return playerId == player1Id ? player2Id : player1Id;
+    }
+}
@@ -0,0 +1,188 @@
+package com.lov4craft.core.database.repository;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.cache.TieredCache;
+import com.lov4craft.core.database.CoupleStatus;
+import com.lov4craft.core.database.DatabaseManager;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class CoupleRepository extends Repository {
+    private static final String SELECT_COLUMNS = "SELECT id, player1_id, player2_id, status, created_at FROM couples ";
+    // Each side has its own covering index, so the two halves are queried separately
+    private static final String FIND_BY_PLAYER_SQL = SELECT_COLUMNS + "WHERE player1_id = ? AND status = ? "
+        + "UNION ALL " + SELECT_COLUMNS + "WHERE player2_id = ? AND status = ?";
+
+    private static final String SEPARATOR = ":";
+
+    // Active couple per player id; null when performance.cache.couple-data is disabled
+    private final TieredCache<Long, CoupleData> cache;
+
+    public CoupleRepository(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection cacheConfig) {
+        super(databaseManager);
+        this.cache = cacheConfig == null || cacheConfig.getBoolean("couple-data", true)
+            ? new TieredCache<>(plugin, "couple", cacheConfig, databaseManager.getExecutor(), this::loadActive,
+                CoupleRepository::encode, CoupleRepository::decode, Long::valueOf)
+            : null;
+    }
+
+    /**
+     * Finds the active couple of a player, if any. Served from the couple
+     * cache when enabled.
+     */
+    public CompletableFuture<Optional<CoupleData>> findActive(long playerId) {
+        if (cache != null) {
+            return cache.get(playerId);
+        }
+        return supply(conn -> findByPlayer(conn, playerId, CoupleStatus.ACTIVE).stream().findFirst());
+    }
+
+    public TieredCache<Long, CoupleData> getCache() {
+        return cache;
+    }
+
+    /**
+     * Lists invitations sent to the player that have not been answered yet.
+     */
+    public CompletableFuture<List<CoupleData>> findPendingInvites(long playerId) {
+        return supply(conn -> {
+            List<CoupleData> invites = new ArrayList<>();
+            for (CoupleData couple : findByPlayer(conn, playerId, CoupleStatus.PENDING)) {
+                if (couple.player2Id() == playerId) {
+                    invites.add(couple);
+                }
+            }
+            return invites;
+        });
+    }
+
+    /**
+     * Stores a pending invitation from {@code inviterId} to {@code inviteeId}.
+     *
+     * @return the id of the new couple row
+     */
+    public CompletableFuture<Long> createInvite(long inviterId, long inviteeId) {
+        return supply(conn -> {
+            try (PreparedStatement statement = conn.prepareStatement(
+                    "INSERT INTO couples (player1_id, player2_id, status) VALUES (?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                statement.setLong(1, inviterId);
+                statement.setLong(2, inviteeId);
+                statement.setString(3, CoupleStatus.PENDING.getSqlValue());
+                statement.executeUpdate();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    return keys.next() ? keys.getLong(1) : 0L;
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves a couple from {@code expected} to {@code status}. The expected status
+     * is part of the WHERE clause, so concurrent accept and decline cannot both win.
+     *
+     * @return true if the row was in the expected status and has been updated
+     */
+    public CompletableFuture<Boolean> updateStatus(long coupleId, CoupleStatus expected, CoupleStatus status) {
+        return supply(conn -> {
+            try (PreparedStatement statement = conn.prepareStatement(
+                    "UPDATE couples SET status = ? WHERE id = ? AND status = ?")) {
+                statement.setString(1, status.getSqlValue());
+                statement.setLong(2, coupleId);
+                statement.setString(3, expected.getSqlValue());
+                return statement.executeUpdate() > 0;
+            }
+        });
+    }
+
+    /**
+     * Accepts a pending invitation and adds the couple to the partner index.
+     *
+     * @return false if the invitation was already answered
+     */
+    public CompletableFuture<Boolean> accept(CoupleData invite) {
+        return updateStatus(invite.id(), CoupleStatus.PENDING, CoupleStatus.ACTIVE).thenApply(updated -> {
+            if (updated) {
+                invalidate(invite);
+                databaseManager.getCoupleIndex().link(invite.player1Id(), invite.player2Id());
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Ends an active couple and removes it from the partner index.
+     *
+     * @return false if the couple was no longer active
+     */
+    public CompletableFuture<Boolean> breakUp(CoupleData couple) {
+        return updateStatus(couple.id(), CoupleStatus.ACTIVE, CoupleStatus.INACTIVE).thenApply(updated -> {
+            if (updated) {
+                invalidate(couple);
+                databaseManager.getCoupleIndex().unlink(couple.player1Id(), couple.player2Id());
+            }
+            return updated;
+        });
+    }
+
+    private void invalidate(CoupleData couple) {
+        if (cache != null) {
+            cache.invalidate(couple.player1Id());
+            cache.invalidate(couple.player2Id());
+        }
+    }
+
+    private CoupleData loadActive(Long playerId) throws SQLException {
+        try (Connection conn = databaseManager.getConnection()) {
+            List<CoupleData> couples = findByPlayer(conn, playerId, CoupleStatus.ACTIVE);
+            return couples.isEmpty() ? null : couples.get(0);
+        }
+    }
+
+    private static String encode(CoupleData couple) {
+        return couple.id() + SEPARATOR + couple.player1Id() + SEPARATOR + couple.player2Id() + SEPARATOR
+            + couple.status().getSqlValue() + SEPARATOR + couple.createdAt();
+    }
+
+    private static CoupleData decode(String value) {
+        String[] fields = value.split(SEPARATOR);
+        return new CoupleData(
+            Long.parseLong(fields[0]),
+            Long.parseLong(fields[1]),
+            Long.parseLong(fields[2]),
+            CoupleStatus.fromSqlValue(fields[3]),
+            Long.parseLong(fields[4])
+        );
+    }
+
+    private List<CoupleData> findByPlayer(Connection conn, long playerId, CoupleStatus status) throws SQLException {
+        List<CoupleData> couples = new ArrayList<>();
+        try (PreparedStatement statement = conn.prepareStatement(FIND_BY_PLAYER_SQL)) {
+            statement.setLong(1, playerId);
+            statement.setString(2, status.getSqlValue());
+            statement.setLong(3, playerId);
+            statement.setString(4, status.getSqlValue());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    couples.add(new CoupleData(
+                        rs.getLong("id"),
+                        rs.getLong("player1_id"),
+                        rs.getLong("player2_id"),
+                        CoupleStatus.fromSqlValue(rs.getString("status")),
+                        rs.getTimestamp("created_at").getTime()
+                    ));
+                }
+            }
+        }
+        return couples;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lov4craft.core.database.repository;
+
+import com.lov4craft.core.database.DatabaseManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Couple mission progress. Updates are appended to the progress log and
+ * reach the database on the next save interval, so reads may lag behind.
+ */
+public class MissionRepository extends Repository {
+    private static final String PROGRESS_SQL =
+        "SELECT mission_id, progress FROM mission_progress WHERE couple_id = ? ORDER BY mission_id";
+
+    public MissionRepository(DatabaseManager databaseManager) {
+        super(databaseManager);
+    }
+
+    /**
+     * Adds to a couple's progress on a mission. Never blocks.
+     */
+    public void addProgress(long coupleId, String missionId, long delta) {
+        databaseManager.getMissionProgressLog().record(coupleId, missionId, delta);
+    }
+
+    /**
+     * Counts a completed mission on the couple leaderboards. Never blocks.
+     */
+    public void recordCompletion(long player1Id, long player2Id) {
+        databaseManager.getLeaderboardService().recordMissionCompletion(player1Id, player2Id);
+    }
+
+    public CompletableFuture<Map<String, Long>> findProgress(long coupleId) {
+        return supplyRead(conn -> {
+            Map<String, Long> progress = new LinkedHashMap<>();
+            try (PreparedStatement statement = conn.prepareStatement(PROGRESS_SQL)) {
+                statement.setLong(1, coupleId);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        progress.put(rs.getString(1), rs.getLong(2));
+                    }
+                }
+            }
+            return progress;
+        });
+    }
+}
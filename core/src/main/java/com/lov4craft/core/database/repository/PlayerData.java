@@ -0,0 +1,12 @@
+package com.lov4craft.core.database.repository;
+
+import java.util.UUID;
+
+public record PlayerData(
+    long id,
+    UUID uuid,
+    String username,
+    String walletAddress,
+    String paypalEmail,
+    long createdAt
+) {}
@@ -0,0 +1,140 @@
+package com.lov4craft.core.database.repository;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.cache.TieredCache;
+import com.lov4craft.core.database.DatabaseManager;
+import com.lov4craft.core.database.PlayerIdResolver;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public class PlayerRepository extends Repository {
+    private static final String SELECT_COLUMNS =
+        "SELECT id, uuid, username, wallet_address, paypal_email, created_at FROM players ";
+    private static final String SEPARATOR = "\u001f";
+
+    // Null when performance.cache.player-data is disabled
+    private final TieredCache<Long, PlayerData> cache;
+
+    public PlayerRepository(LOV4CraftCore plugin, DatabaseManager databaseManager, ConfigurationSection cacheConfig) {
+        super(databaseManager);
+        this.cache = cacheConfig == null || cacheConfig.getBoolean("player-data", true)
+            ? new TieredCache<>(plugin, "player", cacheConfig, databaseManager.getExecutor(), this::loadById,
+                PlayerRepository::encode, PlayerRepository::decode, Long::valueOf)
+            : null;
+    }
+
+    /**
+     * Looks up a player by id, served from the player cache when enabled.
+     */
+    public CompletableFuture<Optional<PlayerData>> findById(long playerId) {
+        if (cache != null) {
+            return cache.get(playerId);
+        }
+        return supply(conn -> Optional.ofNullable(queryById(conn, playerId)));
+    }
+
+    public TieredCache<Long, PlayerData> getCache() {
+        return cache;
+    }
+
+    public CompletableFuture<Optional<PlayerData>> findByUuid(UUID uuid) {
+        return supply(conn -> {
+            try (PreparedStatement statement = conn.prepareStatement(SELECT_COLUMNS + "WHERE uuid_bin = ?")) {
+                statement.setBytes(1, PlayerIdResolver.toBytes(uuid));
+                return readOne(statement);
+            }
+        });
+    }
+
+    public CompletableFuture<Optional<PlayerData>> findByUsername(String username) {
+        return supply(conn -> {
+            try (PreparedStatement statement = conn.prepareStatement(SELECT_COLUMNS + "WHERE username = ? LIMIT 1")) {
+                statement.setString(1, username);
+                return readOne(statement);
+            }
+        });
+    }
+
+    /**
+     * Links or unlinks (when {@code walletAddress} is null) a crypto wallet.
+     *
+     * @return true if the player row exists
+     */
+    public CompletableFuture<Boolean> updateWalletAddress(long playerId, String walletAddress) {
+        return supply(conn -> {
+            try (PreparedStatement statement = conn.prepareStatement(
+                    "UPDATE players SET wallet_address = ? WHERE id = ?")) {
+                if (walletAddress != null) {
+                    statement.setString(1, walletAddress);
+                } else {
+                    statement.setNull(1, Types.VARCHAR);
+                }
+                statement.setLong(2, playerId);
+                boolean updated = statement.executeUpdate() > 0;
+                if (cache != null) {
+                    cache.invalidate(playerId);
+                }
+                return updated;
+            }
+        });
+    }
+
+    private PlayerData loadById(Long playerId) throws SQLException {
+        try (Connection conn = databaseManager.getConnection()) {
+            return queryById(conn, playerId);
+        }
+    }
+
+    private PlayerData queryById(Connection conn, long playerId) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(SELECT_COLUMNS + "WHERE id = ?")) {
+            statement.setLong(1, playerId);
+            return readOne(statement).orElse(null);
+        }
+    }
+
+    private Optional<PlayerData> readOne(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            return Optional.of(new PlayerData(
+                rs.getLong("id"),
+                UUID.fromString(rs.getString("uuid")),
+                rs.getString("username"),
+                rs.getString("wallet_address"),
+                rs.getString("paypal_email"),
+                rs.getTimestamp("created_at").getTime()
+            ));
+        }
+    }
+
+    private static String encode(PlayerData player) {
+        return String.join(SEPARATOR,
+            Long.toString(player.id()),
+            player.uuid().toString(),
+            player.username(),
+            player.walletAddress() != null ? player.walletAddress() : "",
+            player.paypalEmail() != null ? player.paypalEmail() : "",
+            Long.toString(player.createdAt()));
+    }
+
+    private static PlayerData decode(String value) {
+        String[] fields = value.split(SEPARATOR, -1);
+        return new PlayerData(
+            Long.parseLong(fields[0]),
+            UUID.fromString(fields[1]),
+            fields[2],
+            fields[3].isEmpty() ? null : fields[3],
+            fields[4].isEmpty() ? null : fields[4],
+            Long.parseLong(fields[5])
+        );
+    }
+}
@@ -0,0 +1,45 @@
+package com.lov4craft.core.database.repository;
+
+import com.lov4craft.core.database.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Base class for repositories. Every query runs on the database executor and
+ * is exposed as a {@link CompletableFuture}; callers hop back to the main
+ * thread with {@code plugin.getMainThreadExecutor()}.
+ */
+public abstract class Repository {
+    protected final DatabaseManager databaseManager;
+
+    protected Repository(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Runs the work against the primary database.
+     */
+    protected <T> CompletableFuture<T> supply(SqlFunction<T> work) {
+        return submit(work, false);
+    }
+
+    /**
+     * Runs the work against the read replica, or the primary if none is configured.
+     */
+    protected <T> CompletableFuture<T> supplyRead(SqlFunction<T> work) {
+        return submit(work, true);
+    }
+
+    private <T> CompletableFuture<T> submit(SqlFunction<T> work, boolean read) {
+        return databaseManager.supplyAsync(() -> {
+            try (Connection conn = read ? databaseManager.getReadConnection() : databaseManager.getConnection()) {
+                return work.apply(conn);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+}
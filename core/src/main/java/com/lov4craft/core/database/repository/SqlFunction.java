@@ -0,0 +1,9 @@
+package com.lov4craft.core.database.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface SqlFunction<T> {
+    T apply(Connection connection) throws SQLException;
+}
@@ -0,0 +1,39 @@
+package com.lov4craft.core.database.repository;
+
+import com.lov4craft.core.database.DatabaseManager;
+import com.lov4craft.core.database.HistoryCursor;
+import com.lov4craft.core.database.HistoryPage;
+import com.lov4craft.core.database.TransactionRecord;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Entry point for ledger reads and writes. Writes go through the write-behind
+ * queue, reads through the balance cache and keyset history pages.
+ */
+public class TransactionRepository extends Repository {
+
+    public TransactionRepository(DatabaseManager databaseManager) {
+        super(databaseManager);
+    }
+
+    /**
+     * Queues a ledger row. Rewards reach the leaderboards once the row is
+     * committed. Never waits for the writer; overflow goes to its spill file.
+     *
+     * @return false if the writer is stopped or its overflow buffer is full
+     */
+    public boolean record(TransactionRecord record) {
+        return databaseManager.getTransactionWriter().submit(record);
+    }
+
+    public CompletableFuture<Map<String, BigDecimal>> getBalances(long playerId) {
+        return databaseManager.getBalanceLedger().getBalances(playerId);
+    }
+
+    public CompletableFuture<HistoryPage> fetchHistory(long playerId, HistoryCursor cursor, int pageSize) {
+        return databaseManager.getTransactionHistory().fetchPage(playerId, cursor, pageSize);
+    }
+}
@@ -0,0 +1,8 @@
+package com.lov4craft.core.leaderboard;
+
+/**
+ * @param rank   1-based position, highest score first
+ * @param member player id, or {@code lowId:highId} for couples
+ */
+public record LeaderboardEntry(long rank, String member, double score) {
+}
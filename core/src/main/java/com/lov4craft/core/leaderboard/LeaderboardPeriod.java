@@ -0,0 +1,44 @@
+package com.lov4craft.core.leaderboard;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+public enum LeaderboardPeriod {
+    DAILY(TimeUnit.DAYS.toSeconds(2)),
+    WEEKLY(TimeUnit.DAYS.toSeconds(15)),
+    ALL_TIME(0);
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // How long a bucket is kept after it was first written, 0 for forever
+    private final long retentionSeconds;
+
+    LeaderboardPeriod(long retentionSeconds) {
+        this.retentionSeconds = retentionSeconds;
+    }
+
+    public long getRetentionSeconds() {
+        return retentionSeconds;
+    }
+
+    /**
+     * Key suffix of the bucket covering the given time, e.g. {@code d20240131}.
+     */
+    public String bucket(ZonedDateTime now) {
+        switch (this) {
+            case DAILY:
+                return "d" + DAY_FORMAT.format(now);
+            case WEEKLY:
+                return String.format("w%d%02d", now.get(IsoFields.WEEK_BASED_YEAR), now.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            default:
+                return "all";
+        }
+    }
+
+    public static LeaderboardPeriod fromString(String value) {
+        return valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
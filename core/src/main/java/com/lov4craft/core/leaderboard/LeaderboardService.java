@@ -0,0 +1,248 @@
+package com.lov4craft.core.leaderboard;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.database.CoupleIndex;
+import com.lov4craft.core.database.TransactionRecord;
+import com.lov4craft.core.database.TransactionType;
+import com.lov4craft.core.redis.RedisManager;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.scheduler.BukkitTask;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.resps.Tuple;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Leaderboards kept in Redis sorted sets. Scores are added with ZINCRBY as
+ * rewards are committed to the ledger, once for each of the daily, weekly and all-time
+ * buckets, so ranking never needs an aggregate query over the ledger. The
+ * top of selected boards is copied into memory on an interval for
+ * scoreboards that render every tick.
+ *
+ * <p>Keys: {@code <prefix>leaderboard:<board>:<bucket>}, e.g.
+ * {@code lov4craft:leaderboard:rewards:money:w202405}.
+ */
+public class LeaderboardService {
+    public static final String COUPLE_MISSIONS = "couple-missions";
+
+    private final LOV4CraftCore plugin;
+    private final CoupleIndex coupleIndex;
+    private final String keyPrefix;
+    private final ZoneId zone;
+    private final List<String> snapshotBoards;
+    private final int snapshotSize;
+    private final long refreshInterval;
+    private final int maxPageSize;
+
+    private static final int MAX_EXPIRING_KEYS = 1024;
+
+    // Period keys that already had their expiry set by this node, least recently used evicted first
+    private final Set<String> expiringKeys;
+
+    private volatile Map<String, List<LeaderboardEntry>> snapshot;
+    private BukkitTask refreshTask;
+
+    @Getter
+    private final LongAdder updateCount;
+
+    @Getter
+    private final LongAdder failedCount;
+
+    public LeaderboardService(LOV4CraftCore plugin, CoupleIndex coupleIndex, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.coupleIndex = coupleIndex;
+        this.keyPrefix = plugin.getConfigManager().getConfig("redis.yml").getString("redis.key-prefix", "lov4craft:")
+            + "leaderboard:";
+        String timeZone = config != null ? config.getString("time-zone", "") : "";
+        this.zone = timeZone == null || timeZone.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(timeZone);
+        this.snapshotBoards = config != null ? config.getStringList("snapshot.boards") : List.of();
+        this.snapshotSize = Math.max(1, config != null ? config.getInt("snapshot.size", 10) : 10);
+        this.refreshInterval = Math.max(1, config != null ? config.getLong("snapshot.refresh-interval", 30) : 30);
+        this.maxPageSize = Math.max(1, config != null ? config.getInt("max-page-size", 50) : 50);
+        this.expiringKeys = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_EXPIRING_KEYS;
+                }
+            }));
+        this.snapshot = Map.of();
+        this.updateCount = new LongAdder();
+        this.failedCount = new LongAdder();
+    }
+
+    public static String playerRewards(String currency) {
+        return "rewards:" + currency.toLowerCase(Locale.ROOT);
+    }
+
+    public static String coupleRewards(String currency) {
+        return "couple-rewards:" + currency.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Member name of a couple, independent of which partner is passed first.
+     */
+    public static String coupleMember(long player1Id, long player2Id) {
+        return Math.min(player1Id, player2Id) + ":" + Math.max(player1Id, player2Id);
+    }
+
+    public void start() {
+        if (!snapshotBoards.isEmpty()) {
+            refreshTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                this::refreshSnapshot, 20L, refreshInterval * 20L);
+        }
+    }
+
+    public void shutdown() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+    }
+
+    /**
+     * Adds a reward to the player's board and, if they are in a couple, to
+     * the couple's. Other transaction types are ignored. Called by the
+     * transaction writer once the row is committed. Never blocks.
+     */
+    public void recordReward(TransactionRecord record) {
+        if (record.type() != TransactionType.REWARD) {
+            return;
+        }
+        double amount = record.amount().doubleValue();
+        increment(playerRewards(record.currency()), Long.toString(record.playerId()), amount);
+
+        long partnerId = coupleIndex != null ? coupleIndex.getPartner(record.playerId()) : 0;
+        if (partnerId != 0) {
+            increment(coupleRewards(record.currency()), coupleMember(record.playerId(), partnerId), amount);
+        }
+    }
+
+    public void recordMissionCompletion(long player1Id, long player2Id) {
+        increment(COUPLE_MISSIONS, coupleMember(player1Id, player2Id), 1);
+    }
+
+    private void increment(String board, String member, double amount) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            failedCount.increment();
+            return;
+        }
+
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+            String key = key(board, period, now);
+            redis.batched(pipeline -> pipeline.zincrby(key, amount, member)).whenComplete((score, error) -> {
+                if (error != null) {
+                    failedCount.increment();
+                }
+            });
+            if (period.getRetentionSeconds() > 0 && expiringKeys.add(key)) {
+                redis.batched(pipeline -> pipeline.expire(key, period.getRetentionSeconds()));
+            }
+        }
+        updateCount.increment();
+    }
+
+    /**
+     * @param page 1-based page number
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getTop(String board, LeaderboardPeriod period, int page, int pageSize) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        int size = Math.max(1, Math.min(pageSize, maxPageSize));
+        long start = (long) (Math.max(1, page) - 1) * size;
+        String key = key(board, period, ZonedDateTime.now(zone));
+        return redis.executeAsync("ZREVRANGE", jedis ->
+            toEntries(jedis.zrevrangeWithScores(key, start, start + size - 1), start));
+    }
+
+    /**
+     * Rank and score of one member, or empty if they have no score in the bucket.
+     */
+    public CompletableFuture<Optional<LeaderboardEntry>> getRank(String board, LeaderboardPeriod period, String member) {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        String key = key(board, period, ZonedDateTime.now(zone));
+        return redis.executeAsync("ZREVRANK", jedis -> {
+            Pipeline pipeline = jedis.pipelined();
+            Response<Long> rank = pipeline.zrevrank(key, member);
+            Response<Double> score = pipeline.zscore(key, member);
+            pipeline.sync();
+            if (rank.get() == null || score.get() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new LeaderboardEntry(rank.get() + 1, member, score.get()));
+        });
+    }
+
+    /**
+     * Top entries of a board from the last refresh. Never touches the network,
+     * safe to call every tick. Empty for boards not listed in snapshot.boards.
+     */
+    public List<LeaderboardEntry> getSnapshot(String board, LeaderboardPeriod period) {
+        return snapshot.getOrDefault(board + "|" + period.name(), List.of());
+    }
+
+    /**
+     * Reads the top of every snapshot board and period in one pipeline and
+     * swaps the result in as a whole.
+     */
+    public void refreshSnapshot() {
+        RedisManager redis = plugin.getRedisManager();
+        if (redis == null || !redis.isAvailable()) {
+            return;
+        }
+
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        Map<String, Response<List<Tuple>>> responses = new HashMap<>();
+        try {
+            redis.pipelined("ZREVRANGE", pipeline -> {
+                for (String board : snapshotBoards) {
+                    for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+                        responses.put(board + "|" + period.name(),
+                            pipeline.zrevrangeWithScores(key(board, period, now), 0, snapshotSize - 1));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to refresh leaderboard snapshot: " + e.getMessage());
+            return;
+        }
+
+        Map<String, List<LeaderboardEntry>> refreshed = new HashMap<>();
+        responses.forEach((name, response) -> refreshed.put(name, toEntries(response.get(), 0)));
+        snapshot = Map.copyOf(refreshed);
+    }
+
+    private String key(String board, LeaderboardPeriod period, ZonedDateTime now) {
+        return keyPrefix + board + ":" + period.bucket(now);
+    }
+
+    private static List<LeaderboardEntry> toEntries(List<Tuple> tuples, long start) {
+        List<LeaderboardEntry> entries = new ArrayList<>(tuples.size());
+        long rank = start;
+        for (Tuple tuple : tuples) {
+            entries.add(new LeaderboardEntry(++rank, tuple.getElement(), tuple.getScore()));
+        }
+        return List.copyOf(entries);
+    }
+}
@@ -0,0 +1,46 @@
+package com.lov4craft.core.listeners;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.database.PlayerIdResolver;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.sql.SQLException;
+
+public class PlayerListener implements Listener {
+    private final LOV4CraftCore plugin;
+
+    public PlayerListener(LOV4CraftCore plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        // Runs on Paper's login thread, so the blocking lookup never touches a tick
+        PlayerIdResolver resolver = plugin.getDatabaseManager().getPlayerIdResolver();
+        if (resolver == null) {
+            return;
+        }
+
+        try {
+            resolver.loadOrCreate(event.getUniqueId(), event.getName());
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to load player id for " + event.getName() + ": " + e.getMessage());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        PlayerIdResolver resolver = plugin.getDatabaseManager().getPlayerIdResolver();
+        if (resolver != null) {
+            resolver.markOffline(event.getPlayer().getUniqueId());
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.lov4craft.core.redis;
+
+import com.lov4craft.core.LOV4CraftCore;
+import com.lov4craft.core.util.LatencyHistogram;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Redis access configured from redis.yml. Every call is timed per command,
+ * and the time spent waiting for a pooled connection is tracked separately
+ * so pool exhaustion and slow commands can be told apart. Small commands
+ * submitted with {@link #batched} are coalesced into one pipeline per flush
+ * interval, so hundreds of them cost a single connection and round trip.
+ *
+ * <p>A connection failure marks Redis unavailable until a PING, sent every
+ * health-check-interval, succeeds again; meanwhile {@link #isAvailable}
+ * returns false and batched commands fail without waiting on the socket.
+ */
+public class RedisManager {
+    private final LOV4CraftCore plugin;
+
+    @Getter
+    private final JedisPool pool;
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService batchExecutor;
+    private final ConcurrentLinkedQueue<BatchedCommand<?>> batchQueue;
+    private final AtomicInteger batchQueueSize;
+    private final AtomicBoolean flushScheduled;
+    private final int maxBatchSize;
+
+    private volatile boolean healthy;
+    private volatile boolean closing;
+
+    // Microseconds per command name
+    private final Map<String, LatencyHistogram> commandLatency;
+
+    @Getter
+    private final LatencyHistogram poolWaitMicros;
+
+    @Getter
+    private final LatencyHistogram batchSizes;
+
+    public RedisManager(LOV4CraftCore plugin, FileConfiguration config) {
+        this.plugin = plugin;
+        ConfigurationSection redis = config.getConfigurationSection("redis");
+        ConfigurationSection poolSettings = redis != null ? redis.getConfigurationSection("pool") : null;
+
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(poolSettings != null ? poolSettings.getInt("max-total", 16) : 16);
+        poolConfig.setMaxIdle(poolSettings != null ? poolSettings.getInt("max-idle", 16) : 16);
+        poolConfig.setMinIdle(poolSettings != null ? poolSettings.getInt("min-idle", 2) : 2);
+        // A PING per borrow doubles the round trips; broken connections are caught by idle checks instead
+        poolConfig.setTestOnBorrow(poolSettings != null && poolSettings.getBoolean("test-on-borrow", false));
+        poolConfig.setTestOnReturn(poolSettings != null && poolSettings.getBoolean("test-on-return", false));
+        poolConfig.setTestWhileIdle(poolSettings == null || poolSettings.getBoolean("test-while-idle", true));
+        poolConfig.setMinEvictableIdleTime(Duration.ofMillis(
+            poolSettings != null ? poolSettings.getLong("min-evictable-idle-time", 60000) : 60000));
+        poolConfig.setTimeBetweenEvictionRuns(Duration.ofMillis(
+            poolSettings != null ? poolSettings.getLong("time-between-eviction-runs", 30000) : 30000));
+        poolConfig.setNumTestsPerEvictionRun(poolSettings != null ? poolSettings.getInt("num-tests-per-eviction-run", 3) : 3);
+        poolConfig.setBlockWhenExhausted(poolSettings == null || poolSettings.getBoolean("block-when-exhausted", true));
+        poolConfig.setMaxWait(Duration.ofMillis(poolSettings != null ? poolSettings.getLong("max-wait", 2000) : 2000));
+        poolConfig.setJmxEnabled(false);
+
+        String password = redis != null ? redis.getString("password", null) : null;
+        if (password != null && password.isEmpty()) {
+            password = null;
+        }
+        this.pool = new JedisPool(poolConfig,
+            redis != null ? redis.getString("host", "localhost") : "localhost",
+            redis != null ? redis.getInt("port", 6379) : 6379,
+            redis != null ? redis.getInt("timeout", 2000) : 2000,
+            password,
+            redis != null ? redis.getInt("database", 0) : 0);
+
+        ConfigurationSection executorSettings = redis != null ? redis.getConfigurationSection("executor") : null;
+        int threads = Math.max(1, executorSettings != null ? executorSettings.getInt("threads", 4) : 4);
+        int queueCapacity = Math.max(1, executorSettings != null ? executorSettings.getInt("queue-capacity", 1000) : 1000);
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "LOV4CRAFT-Redis-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.batchExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LOV4CRAFT-RedisBatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ConfigurationSection batching = redis != null ? redis.getConfigurationSection("batching") : null;
+        long flushInterval = Math.max(1, batching != null ? batching.getLong("flush-interval", 5) : 5);
+        this.maxBatchSize = Math.max(1, batching != null ? batching.getInt("max-batch-size", 256) : 256);
+        this.batchQueue = new ConcurrentLinkedQueue<>();
+        this.batchQueueSize = new AtomicInteger();
+        this.flushScheduled = new AtomicBoolean(false);
+        this.commandLatency = new ConcurrentHashMap<>();
+        this.poolWaitMicros = new LatencyHistogram();
+        this.batchSizes = new LatencyHistogram();
+        this.healthy = true;
+
+        long healthCheckInterval = Math.max(100, redis != null ? redis.getLong("health-check-interval", 5000) : 5000);
+        batchExecutor.scheduleWithFixedDelay(this::flushBatches, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        batchExecutor.scheduleWithFixedDelay(this::probe, healthCheckInterval, healthCheckInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a command on the calling thread. Blocking; never call it from the main thread.
+     *
+     * @param command name the latency is recorded under, e.g. "GET"
+     */
+    public <T> T execute(String command, Function<Jedis, T> action) {
+        try (Jedis jedis = borrow()) {
+            long start = System.nanoTime();
+            try {
+                return action.apply(jedis);
+            } finally {
+                record(command, start);
+            }
+        } catch (JedisConnectionException e) {
+            markUnhealthy(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a command on the Redis executor.
+     */
+    public <T> CompletableFuture<T> executeAsync(String command, Function<Jedis, T> action) {
+        try {
+            return CompletableFuture.supplyAsync(() -> execute(command, action), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends all commands queued by {@code commands} in one round trip on the
+     * calling thread. Blocking.
+     *
+     * @return the replies in command order
+     */
+    public List<Object> pipelined(String name, Consumer<Pipeline> commands) {
+        try (Jedis jedis = borrow()) {
+            long start = System.nanoTime();
+            try {
+                Pipeline pipeline = jedis.pipelined();
+                commands.accept(pipeline);
+                return pipeline.syncAndReturnAll();
+            } finally {
+                record(name, start);
+            }
+        } catch (JedisConnectionException e) {
+            markUnhealthy(e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<List<Object>> pipelinedAsync(String name, Consumer<Pipeline> commands) {
+        try {
+            return CompletableFuture.supplyAsync(() -> pipelined(name, commands), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Queues a single command to be sent together with others in the next
+     * shared pipeline. Cheap enough to call many times per tick from any thread.
+     *
+     * @param command adds the command to the pipeline and returns its reply handle
+     * @return a future failed with {@link RejectedExecutionException} once shutdown has started
+     */
+    public <T> CompletableFuture<T> batched(Function<Pipeline, Response<T>> command) {
+        if (closing) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Redis is shutting down"));
+        }
+        BatchedCommand<T> batched = new BatchedCommand<>(command, new CompletableFuture<>());
+        batchQueue.add(batched);
+        // Raced with shutdown and may have missed the final flush; if it is still queued, nobody sends it
+        if (closing && batchQueue.remove(batched)) {
+            batchQueueSize.decrementAndGet();
+            batched.future().completeExceptionally(new RejectedExecutionException("Redis is shutting down"));
+            return batched.future();
+        }
+        if (batchQueueSize.incrementAndGet() >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                batchExecutor.execute(() -> {
+                    flushScheduled.set(false);
+                    flushBatches();
+                });
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+        return batched.future();
+    }
+
+    public String describe() {
+        LatencyHistogram.Snapshot poolWait = poolWaitMicros.snapshot();
+        StringBuilder builder = new StringBuilder(String.format(
+            "pool active=%d idle=%d waiting=%d | borrow wait p50=%dus p99=%dus max=%dus",
+            pool.getNumActive(), pool.getNumIdle(), pool.getNumWaiters(),
+            poolWait.getValueAtPercentile(50), poolWait.getValueAtPercentile(99), poolWait.getMax()));
+
+        List<Map.Entry<String, LatencyHistogram.Snapshot>> commands = new ArrayList<>();
+        commandLatency.forEach((command, histogram) -> commands.add(Map.entry(command, histogram.snapshot())));
+        commands.sort(Comparator.comparingLong(entry -> -entry.getValue().getCount()));
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : commands) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue();
+            builder.append(String.format("\n%s: count=%d p50=%dus p99=%dus max=%dus", entry.getKey(), snapshot.getCount(),
+                snapshot.getValueAtPercentile(50), snapshot.getValueAtPercentile(99), snapshot.getMax()));
+        }
+        return builder.toString();
+    }
+
+    public LatencyHistogram getCommandLatency(String command) {
+        return commandLatency.computeIfAbsent(command, ignored -> new LatencyHistogram());
+    }
+
+    public boolean isAvailable() {
+        return healthy && !closing && !pool.isClosed();
+    }
+
+    public void shutdown() {
+        closing = true;
+        batchExecutor.shutdown();
+        try {
+            batchExecutor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushBatches();
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        if (!pool.isClosed()) {
+            pool.close();
+        }
+    }
+
+    private Jedis borrow() {
+        long start = System.nanoTime();
+        Jedis jedis = pool.getResource();
+        poolWaitMicros.record((System.nanoTime() - start) / 1000L);
+        return jedis;
+    }
+
+    private void markUnhealthy(JedisConnectionException e) {
+        if (healthy && !closing) {
+            healthy = false;
+            plugin.getLogger().warning("Redis is unreachable, treating it as unavailable until it answers again: "
+                + e.getMessage());
+        }
+    }
+
+    private void probe() {
+        if (healthy) {
+            return;
+        }
+        try (Jedis jedis = pool.getResource()) {
+            jedis.ping();
+            healthy = true;
+            plugin.getLogger().info("Redis is reachable again");
+        } catch (Exception ignored) {
+            // Still down, try again on the next check
+        }
+    }
+
+    private void record(String command, long startNanos) {
+        getCommandLatency(command).record((System.nanoTime() - startNanos) / 1000L);
+    }
+
+    private void flushBatches() {
+        while (!batchQueue.isEmpty()) {
+            List<BatchedCommand<?>> batch = new ArrayList<>(Math.min(maxBatchSize, batchQueueSize.get()));
+            BatchedCommand<?> next;
+            while (batch.size() < maxBatchSize && (next = batchQueue.poll()) != null) {
+                batch.add(next);
+            }
+            batchQueueSize.addAndGet(-batch.size());
+            batchSizes.record(batch.size());
+            sendBatch(batch);
+        }
+    }
+
+    private void sendBatch(List<BatchedCommand<?>> batch) {
+        if (!healthy) {
+            // Fail fast rather than wait out the connect timeout once per batch
+            JedisConnectionException e = new JedisConnectionException("Redis is unreachable");
+            for (BatchedCommand<?> command : batch) {
+                command.future().completeExceptionally(e);
+            }
+            return;
+        }
+
+        List<Response<?>> responses = new ArrayList<>(batch.size());
+        try {
+            pipelined("BATCH", pipeline -> {
+                for (BatchedCommand<?> command : batch) {
+                    responses.add(command.command().apply(pipeline));
+                }
+            });
+        } catch (Exception e) {
+            for (BatchedCommand<?> command : batch) {
+                command.future().completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(responses.get(i));
+        }
+    }
+
+    private record BatchedCommand<T>(Function<Pipeline, Response<T>> command, CompletableFuture<T> future) {
+        @SuppressWarnings("unchecked")
+        void complete(Response<?> response) {
+            try {
+                future.complete(((Response<T>) response).get());
+            } catch (Exception e) {
+                future.completeExceptionally(new CompletionException(e));
+            }
+        }
+    }
+}
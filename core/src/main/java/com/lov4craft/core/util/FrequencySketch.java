@@ -0,0 +1,90 @@
+package com.lov4craft.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate access counts for cache admission (TinyLFU). A count-min
+ * sketch of 4-bit counters, sixteen to a long, updated with compare-and-set.
+ * All counters are halved once the sample is full, so keys that were popular
+ * long ago make way for those popular now.
+ */
+public class FrequencySketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions;
+
+    /**
+     * @param maximumSize number of entries the owning cache holds
+     */
+    public FrequencySketch(int maximumSize) {
+        int size = Math.max(16, Integer.highestOneBit(Math.max(1, maximumSize) - 1) << 1);
+        this.table = new AtomicLongArray(size);
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+        this.additions = new AtomicInteger();
+    }
+
+    /**
+     * Estimated accesses of the hashed key since the last aging, 0 to 15.
+     */
+    public int frequency(long hash) {
+        int frequency = 15;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long mixed = mix(hash, i);
+            int offset = (int) ((mixed >>> 32) & 15) << 2;
+            int count = (int) ((table.get((int) mixed & tableMask) >>> offset) & 0xF);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    public void increment(long hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long mixed = mix(hash, i);
+            added |= incrementAt((int) mixed & tableMask, (int) ((mixed >>> 32) & 15) << 2);
+        }
+
+        if (added) {
+            int count = additions.incrementAndGet();
+            if (count >= sampleSize && additions.compareAndSet(count, 0)) {
+                reset();
+            }
+        }
+    }
+
+    private boolean incrementAt(int index, int offset) {
+        long mask = 0xFL << offset;
+        while (true) {
+            long current = table.get(index);
+            if ((current & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, current, current + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Halves every counter. Increments racing with this may be lost, which
+     * only makes the estimate slightly lower.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, (table.get(i) >>> 1) & RESET_MASK);
+        }
+    }
+
+    private static long mix(long hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        return mixed ^ (mixed >>> 29);
+    }
+}
@@ -0,0 +1,297 @@
+package com.lov4craft.core.util;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing core of {@link LongLongMap} and {@link UuidLongMap}: keys
+ * of one or two longs mapped to a positive long value, plus an optional long
+ * of extra data per entry. Reads use an optimistic stamp so lookups on the
+ * main thread neither allocate nor block behind writers.
+ */
+final class LongKeyTable {
+    private final StampedLock lock = new StampedLock();
+    private final boolean wideKeys;
+    private final boolean withExtra;
+
+    // Swapped as a whole on resize so optimistic readers always see matching arrays
+    private volatile Table table;
+    private int size;
+
+    /**
+     * @param wideKeys whether keys use both the high and the low long, otherwise only the low one
+     * @param withExtra whether entries carry an extra long, 0 for new entries
+     */
+    LongKeyTable(int expectedSize, boolean wideKeys, boolean withExtra) {
+        this.wideKeys = wideKeys;
+        this.withExtra = withExtra;
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @return the mapped value, or 0 if absent
+     */
+    long get(long high, long low) {
+        long stamp = lock.tryOptimisticRead();
+        long result = find(high, low);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = find(high, low);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param replace whether an existing entry takes the new value and extra
+     * @return whether the entry was added or replaced
+     */
+    boolean put(long high, long low, long value, long extra, boolean replace) {
+        long stamp = lock.writeLock();
+        try {
+            return insert(high, low, value, extra, replace);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return whether the key was present
+     */
+    boolean setExtra(long high, long low, long extra) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(high, low);
+            if (slot < 0) {
+                return false;
+            }
+            table.extra[slot] = extra;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the removed value, or 0 if absent
+     */
+    long remove(long high, long low) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(high, low);
+            if (slot < 0) {
+                return 0;
+            }
+            long value = table.values[slot];
+            delete(slot);
+            return value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes entries whose extra matches.
+     *
+     * @return number of removed entries
+     */
+    int removeIfExtra(LongPredicate test) {
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int removed = 0;
+            int slot = 0;
+            while (slot < t.values.length) {
+                if (t.values[slot] != 0 && test.test(t.extra[slot])) {
+                    // Backward-shift may move a later entry into this slot, so re-check it
+                    delete(slot);
+                    removed++;
+                } else {
+                    slot++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        long stamp = lock.writeLock();
+        try {
+            allocate(table.values.length);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long find(long high, long low) {
+        Table current = table;
+        long[] keysHigh = current.high;
+        long[] keysLow = current.low;
+        long[] vals = current.values;
+        int mask = vals.length - 1;
+        // Bounded probe so a torn optimistic read can never spin forever
+        for (int i = 0, slot = hash(high, low) & mask; i < vals.length; i++, slot = (slot + 1) & mask) {
+            long value = vals[slot];
+            if (value == 0) {
+                return 0;
+            }
+            if (keysLow[slot] == low && (keysHigh == null || keysHigh[slot] == high)) {
+                return value;
+            }
+        }
+        return 0;
+    }
+
+    private int slotOf(long high, long low) {
+        Table t = table;
+        int mask = t.values.length - 1;
+        for (int slot = hash(high, low) & mask; t.values[slot] != 0; slot = (slot + 1) & mask) {
+            if (t.matches(slot, high, low)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean insert(long high, long low, long value, long extra, boolean replace) {
+        if ((size + 1) * 2 > table.values.length) {
+            resize(table.values.length << 1);
+        }
+
+        Table t = table;
+        int mask = t.values.length - 1;
+        int slot = hash(high, low) & mask;
+        while (t.values[slot] != 0) {
+            if (t.matches(slot, high, low)) {
+                if (!replace) {
+                    return false;
+                }
+                t.values[slot] = value;
+                if (t.extra != null) {
+                    t.extra[slot] = extra;
+                }
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (t.high != null) {
+            t.high[slot] = high;
+        }
+        t.low[slot] = low;
+        t.values[slot] = value;
+        if (t.extra != null) {
+            t.extra[slot] = extra;
+        }
+        size++;
+        return true;
+    }
+
+    private void delete(int slot) {
+        Table t = table;
+        int mask = t.values.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        while (t.values[next] != 0) {
+            int ideal = hash(t.highAt(next), t.low[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                t.copy(next, t, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        t.values[hole] = 0;
+        if (t.extra != null) {
+            t.extra[hole] = 0;
+        }
+        size--;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table resized = new Table(capacity, wideKeys, withExtra);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < old.values.length; i++) {
+            if (old.values[i] == 0) {
+                continue;
+            }
+            int slot = hash(old.highAt(i), old.low[i]) & mask;
+            while (resized.values[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            old.copy(i, resized, slot);
+        }
+        table = resized;
+    }
+
+    private void allocate(int capacity) {
+        table = new Table(capacity, wideKeys, withExtra);
+        size = 0;
+    }
+
+    private static final class Table {
+        // Parallel arrays: a slot is empty when its value is 0; high and extra are null when unused
+        private final long[] high;
+        private final long[] low;
+        private final long[] values;
+        private final long[] extra;
+
+        private Table(int capacity, boolean wideKeys, boolean withExtra) {
+            this.high = wideKeys ? new long[capacity] : null;
+            this.low = new long[capacity];
+            this.values = new long[capacity];
+            this.extra = withExtra ? new long[capacity] : null;
+        }
+
+        private long highAt(int slot) {
+            return high != null ? high[slot] : 0;
+        }
+
+        private boolean matches(int slot, long keyHigh, long keyLow) {
+            return low[slot] == keyLow && (high == null || high[slot] == keyHigh);
+        }
+
+        private void copy(int from, Table to, int slot) {
+            if (high != null) {
+                to.high[slot] = high[from];
+            }
+            to.low[slot] = low[from];
+            to.values[slot] = values[from];
+            if (extra != null) {
+                to.extra[slot] = extra[from];
+            }
+        }
+    }
+
+    private static int hash(long high, long low) {
+        long h = high ^ Long.rotateLeft(low, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
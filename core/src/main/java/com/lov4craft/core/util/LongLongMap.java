@@ -0,0 +1,43 @@
+package com.lov4craft.core.util;
+
+/**
+ * Open-addressing map from a positive long key to a positive long value.
+ * Reads use an optimistic stamp so lookups on the main thread neither
+ * allocate nor block behind writers.
+ */
+public class LongLongMap {
+    private final LongKeyTable table;
+
+    public LongLongMap(int expectedSize) {
+        this.table = new LongKeyTable(expectedSize, false, false);
+    }
+
+    /**
+     * @return the mapped value, or 0 if absent
+     */
+    public long get(long key) {
+        return table.get(0, key);
+    }
+
+    public void put(long key, long value) {
+        if (key <= 0 || value <= 0) {
+            throw new IllegalArgumentException("Key and value must be positive: " + key + " -> " + value);
+        }
+        table.put(0, key, value, 0, true);
+    }
+
+    /**
+     * @return the removed value, or 0 if absent
+     */
+    public long remove(long key) {
+        return table.remove(0, key);
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public void clear() {
+        table.clear();
+    }
+}
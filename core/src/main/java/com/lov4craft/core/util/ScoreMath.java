@@ -0,0 +1,107 @@
+package com.lov4craft.core.util;
+
+/**
+ * Scoring kernels for model outputs on primitive arrays. Every method takes
+ * the destination array so hot paths can reuse a buffer, and passing the
+ * input as destination works in place. Loops are plain indexed loops over
+ * one array so the JIT can unroll them and check bounds once.
+ */
+public final class ScoreMath {
+    private ScoreMath() {
+    }
+
+    /**
+     * Scales the values to sum to 1. A zero sum leaves all zeros rather than NaN.
+     *
+     * @return {@code out}
+     */
+    public static double[] normalize(double[] values, double[] out) {
+        checkLength(values, out);
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+        }
+        double scale = sum == 0 ? 0 : 1 / sum;
+        for (int i = 0; i < values.length; i++) {
+            out[i] = values[i] * scale;
+        }
+        return out;
+    }
+
+    /**
+     * Numerically stable softmax: the maximum is subtracted before
+     * exponentiating, and the exponent and the sum share one pass.
+     *
+     * @return {@code out}
+     */
+    public static double[] softmax(double[] values, double[] out) {
+        checkLength(values, out);
+        if (values.length == 0) {
+            return out;
+        }
+        double max = max(values);
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            double e = Math.exp(values[i] - max);
+            out[i] = e;
+            sum += e;
+        }
+        double scale = 1 / sum;
+        // A longer buffer keeps its tail untouched, as in normalize
+        for (int i = 0; i < values.length; i++) {
+            out[i] *= scale;
+        }
+        return out;
+    }
+
+    /**
+     * How much the largest value dominates, damped for short outputs:
+     * {@code max / sum * (1 - e^-n)}. 0 for empty or all-zero input.
+     */
+    public static double confidence(double[] values) {
+        if (values == null || values.length == 0) {
+            return 0.0;
+        }
+        double sum = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            sum += value;
+            if (value > max) {
+                max = value;
+            }
+        }
+        return sum == 0 ? 0.0 : (max / sum) * (1 - Math.exp(-values.length));
+    }
+
+    public static double max(double[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return index of the largest value, the first on ties, or -1 if empty
+     */
+    public static int argmax(double[] values) {
+        int best = -1;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            if (best < 0 || values[i] > max) {
+                max = values[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static void checkLength(double[] values, double[] out) {
+        if (out.length < values.length) {
+            throw new IllegalArgumentException("Output holds " + out.length + " values, need " + values.length);
+        }
+    }
+}
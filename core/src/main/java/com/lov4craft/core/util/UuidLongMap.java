@@ -0,0 +1,83 @@
+package com.lov4craft.core.util;
+
+import java.util.UUID;
+
+/**
+ * Open-addressing map from a UUID, stored as its two longs, to a positive long
+ * value. Each entry also carries a "last seen" timestamp where 0 means the
+ * entry is pinned and never swept. Reads use an optimistic stamp so lookups
+ * on the main thread neither allocate nor block behind writers.
+ */
+public class UuidLongMap {
+    private static final long PINNED = 0L;
+
+    private final LongKeyTable table;
+
+    public UuidLongMap(int expectedSize) {
+        this.table = new LongKeyTable(expectedSize, true, true);
+    }
+
+    /**
+     * @return the mapped value, or 0 if absent
+     */
+    public long get(UUID uuid) {
+        return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public long get(long msb, long lsb) {
+        return table.get(msb, lsb);
+    }
+
+    /**
+     * Stores a value and pins the entry until {@link #unpin} is called.
+     */
+    public void put(UUID uuid, long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Value must be positive: " + value);
+        }
+        table.put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value, PINNED, true);
+    }
+
+    /**
+     * Stores an unpinned entry last seen at {@code timestamp}, unless the key
+     * is present. An existing entry keeps its value and pin, so a lookup
+     * racing with a login cannot unpin the online player.
+     *
+     * @return whether the entry was added
+     */
+    public boolean putIfAbsent(UUID uuid, long value, long timestamp) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Value must be positive: " + value);
+        }
+        return table.put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value,
+            Math.max(1L, timestamp), false);
+    }
+
+    /**
+     * Marks an entry as last seen at {@code timestamp} so it becomes eligible for {@link #sweep}.
+     */
+    public void unpin(UUID uuid, long timestamp) {
+        table.setExtra(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), Math.max(1L, timestamp));
+    }
+
+    public void remove(UUID uuid) {
+        table.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Removes unpinned entries last seen before {@code cutoff}.
+     *
+     * @return number of removed entries
+     */
+    public int sweep(long cutoff) {
+        return table.removeIfExtra(seen -> seen != PINNED && seen < cutoff);
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public void clear() {
+        table.clear();
+    }
+}